@@ -0,0 +1,90 @@
+package com.oceanview.resort.bench;
+
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.service.AvailabilityService;
+import com.oceanview.resort.util.JsonUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic reservation data sets for the benchmarks
+ */
+final class BenchmarkData {
+
+    static final long FIRST_REFERENCE_ID = 1001;
+    private static final LocalDate FIRST_CHECK_IN = LocalDate.of(2024, 1, 1);
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * The i-th synthetic reservation; stays are spread over about three years
+     */
+    static Reservation reservation(long i) {
+        Reservation.RoomType[] rooms = Reservation.RoomType.values();
+        Reservation.BoardType[] boards = Reservation.BoardType.values();
+        LocalDate checkIn = FIRST_CHECK_IN.plusDays(i % 1095);
+
+        Reservation r = new Reservation();
+        r.setReferenceId(String.valueOf(FIRST_REFERENCE_ID + i));
+        r.setGuestName("Guest " + i);
+        r.setAddress(i + " Galle Road, Colombo");
+        r.setPhone(String.format("077%07d", i % 10_000_000));
+        r.setRoomType(rooms[(int) (i % rooms.length)]);
+        r.setBoardType(boards[(int) (i % boards.length)]);
+        r.setCheckInDate(checkIn);
+        r.setCheckOutDate(checkIn.plusDays(1 + i % 7));
+        r.setTotalBill(25000.0 * (1 + i % 7));
+        return r;
+    }
+
+    static List<Reservation> reservations(int count) {
+        List<Reservation> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Reservation r = reservation(i);
+            r.setId((long) i + 1);
+            list.add(r);
+        }
+        return list;
+    }
+
+    /**
+     * A temporary data directory holding a snapshot of {@code count} reservations
+     */
+    static Path createDataDir(int count) throws IOException {
+        Path dir = Files.createTempDirectory("resort-bench");
+        Files.writeString(dir.resolve("reservations.json"), JsonUtil.toJson(reservations(count)));
+        return dir;
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Inventory large enough that availability never rejects a benchmark booking
+     */
+    static AvailabilityService unlimitedInventory() {
+        Map<Reservation.RoomType, Integer> rooms = new EnumMap<>(Reservation.RoomType.class);
+        for (Reservation.RoomType type : Reservation.RoomType.values()) {
+            rooms.put(type, Integer.MAX_VALUE);
+        }
+        return new AvailabilityService(rooms);
+    }
+}
@@ -0,0 +1,37 @@
+package com.oceanview.resort.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once per thread count and writes one JSON result file per run.
+ * <pre>
+ * java -jar target/benchmarks.jar                          # everything, 1/4/16 threads
+ * java -jar target/benchmarks.jar RepositoryBenchmark 1,8  # one class, chosen thread counts
+ * java -jar target/benchmarks.jar -h                       # any leading option goes to the plain JMH CLI
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].startsWith("-")) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+        String threadCounts = args.length > 1 ? args[1] : "1,4,16";
+
+        for (String count : threadCounts.split(",")) {
+            int threads = Integer.parseInt(count.trim());
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-result-" + threads + "-threads.json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.oceanview.resort.bench;
+
+import com.oceanview.resort.handler.ReservationHandler;
+import com.oceanview.resort.repository.FileBasedReservationRepository;
+import com.oceanview.resort.server.NioHttpServer;
+import com.oceanview.resort.server.ServerExecutors;
+import com.oceanview.resort.service.ReferenceIdAllocator;
+import com.oceanview.resort.service.ReservationService;
+import com.oceanview.resort.util.JsonUtil;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end throughput and latency percentiles of the ReservationHandler endpoints on an
+ * embedded server, for both the JDK server and NioHttpServer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpServerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"jdk", "nio"})
+    public String engine;
+
+    private Path dataDir;
+    private FileBasedReservationRepository repository;
+    private HttpServer server;
+    private ExecutorService executor;
+    private HttpClient client;
+    private String baseUrl;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("resort.wal.fsync", "NEVER");
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        dataDir = BenchmarkData.createDataDir(size);
+        repository = new FileBasedReservationRepository(dataDir);
+        ReservationService service = new ReservationService(repository,
+                new ReferenceIdAllocator(dataDir.resolve("reference-id.hwm"), repository.findMaxReferenceId(), 100),
+                BenchmarkData.unlimitedInventory());
+
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", 0);
+        server = "nio".equals(engine) ? NioHttpServer.create(address, 1024) : HttpServer.create(address, 0);
+        server.createContext("/api/reservations", new ReservationHandler(service));
+        executor = ServerExecutors.create();
+        server.setExecutor(executor);
+        server.start();
+
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/reservations";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        sequence.set(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.stop(0);
+        executor.shutdownNow();
+        repository.close();
+        BenchmarkData.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public int getByReferenceId() throws Exception {
+        long i = ThreadLocalRandom.current().nextLong(size);
+        return get("/" + (BenchmarkData.FIRST_REFERENCE_ID + i));
+    }
+
+    @Benchmark
+    public int getStats() throws Exception {
+        return get("/stats");
+    }
+
+    @Benchmark
+    public int getPage() throws Exception {
+        return get("?limit=50");
+    }
+
+    @Benchmark
+    public int create() throws Exception {
+        String body = JsonUtil.toJson(BenchmarkData.reservation(sequence.incrementAndGet()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return send(request);
+    }
+
+    private int get(String path) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build());
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
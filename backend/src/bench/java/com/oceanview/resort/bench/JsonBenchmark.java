@@ -0,0 +1,59 @@
+package com.oceanview.resort.bench;
+
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.util.JsonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonUtil serialization cost for single reservations and whole lists
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Reservation> reservations;
+    private Reservation single;
+    private String singleJson;
+
+    @Setup
+    public void setUp() {
+        reservations = BenchmarkData.reservations(size);
+        single = reservations.get(0);
+        singleJson = JsonUtil.toJson(single);
+    }
+
+    @Benchmark
+    public String toJsonList() {
+        return JsonUtil.toJson(reservations);
+    }
+
+    @Benchmark
+    public String toJsonSingle() {
+        return JsonUtil.toJson(single);
+    }
+
+    @Benchmark
+    public Reservation fromJsonSingle() {
+        return JsonUtil.fromJson(singleJson, Reservation.class);
+    }
+}
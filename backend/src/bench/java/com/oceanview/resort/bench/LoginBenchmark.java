@@ -0,0 +1,65 @@
+package com.oceanview.resort.bench;
+
+import com.oceanview.resort.auth.CredentialVerifier;
+import com.oceanview.resort.auth.PasswordHasher;
+import com.oceanview.resort.model.User;
+import com.oceanview.resort.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login throughput with PBKDF2 hashing, with and without the verified-credential cache.
+ * Run with several thread counts (BenchmarkRunner's default) to see the hashing pool saturate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    @Param({"0", "300000"})
+    public long cacheTtlMillis;
+
+    private Path dir;
+    private CredentialVerifier credentials;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("resort.users.watch", "false");
+        dir = Files.createTempDirectory("resort-login-bench");
+        UserRepository users = new UserRepository(dir.resolve("users.txt"));
+        users.save(new User("admin", "admin123", "ADMIN"));
+        int threads = Runtime.getRuntime().availableProcessors();
+        credentials = new CredentialVerifier(users, new PasswordHasher(), threads, 1024, cacheTtlMillis);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        credentials.close();
+        BenchmarkData.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Optional<User> login() {
+        return credentials.authenticate("admin", "admin123");
+    }
+}
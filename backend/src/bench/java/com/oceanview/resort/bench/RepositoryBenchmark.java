@@ -0,0 +1,94 @@
+package com.oceanview.resort.bench;
+
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.repository.ReservationRepositories;
+import com.oceanview.resort.repository.ReservationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reservation repository write and lookup cost as the stored history grows, per storage backend
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"NEVER", "ALWAYS"})
+    public String fsync;
+
+    @Param({"json", "binary", "h2"})
+    public String backend;
+
+    private Path dataDir;
+    private ReservationRepository repository;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("resort.wal.fsync", fsync);
+        System.setProperty("resort.storage.backend", backend);
+        dataDir = BenchmarkData.createDataDir(size);
+        repository = ReservationRepositories.open(dataDir);
+        sequence.set(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        BenchmarkData.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public Reservation save() {
+        return repository.save(BenchmarkData.reservation(sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Optional<Reservation> findByReferenceId() {
+        long i = ThreadLocalRandom.current().nextLong(size);
+        return repository.findByReferenceId(String.valueOf(BenchmarkData.FIRST_REFERENCE_ID + i));
+    }
+
+    @Benchmark
+    public List<Reservation> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public List<Reservation> findByStayOverlapping() {
+        LocalDate from = LocalDate.of(2024, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(1095));
+        return repository.findByStayOverlapping(from, from.plusDays(7));
+    }
+
+    @Benchmark
+    public String findMaxReferenceId() {
+        return repository.findMaxReferenceId();
+    }
+}
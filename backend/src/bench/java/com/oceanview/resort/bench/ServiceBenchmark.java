@@ -0,0 +1,91 @@
+package com.oceanview.resort.bench;
+
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.repository.FileBasedReservationRepository;
+import com.oceanview.resort.service.Quote;
+import com.oceanview.resort.service.ReferenceIdAllocator;
+import com.oceanview.resort.service.ReservationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReservationService create, stats and batch quoting cost as the stored history grows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private Path dataDir;
+    private FileBasedReservationRepository repository;
+    private ReservationService service;
+    private final AtomicLong sequence = new AtomicLong();
+    private List<Reservation> candidateStays;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("resort.wal.fsync", "NEVER");
+        dataDir = BenchmarkData.createDataDir(size);
+        repository = new FileBasedReservationRepository(dataDir);
+        service = new ReservationService(repository,
+                new ReferenceIdAllocator(dataDir.resolve("reference-id.hwm"), repository.findMaxReferenceId(), 100),
+                BenchmarkData.unlimitedInventory());
+        sequence.set(size);
+        candidateStays = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            candidateStays.add(BenchmarkData.reservation(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        BenchmarkData.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public Reservation create() throws Exception {
+        Reservation r = BenchmarkData.reservation(sequence.incrementAndGet());
+        r.setReferenceId(null);
+        r.setTotalBill(null);
+        return service.create(r);
+    }
+
+    /**
+     * One POST /api/quotes call's worth of pricing: 1000 stays
+     */
+    @Benchmark
+    public List<Quote> quoteAll() {
+        return service.quoteAll(candidateStays);
+    }
+
+    @Benchmark
+    public Map<String, Object> stats() {
+        return service.getStats();
+    }
+}
@@ -1,17 +1,39 @@
 package com.oceanview.resort;
 
+import com.oceanview.resort.auth.AuthFilter;
+import com.oceanview.resort.auth.CredentialVerifier;
+import com.oceanview.resort.auth.PasswordHasher;
+import com.oceanview.resort.auth.SessionStore;
 import com.oceanview.resort.handler.ReservationHandler;
 import com.oceanview.resort.handler.AuthHandler;
 import com.oceanview.resort.handler.UserHandler;
-import com.oceanview.resort.handler.SwaggerHandler;
-import com.oceanview.resort.repository.FileBasedReservationRepository;
+import com.oceanview.resort.handler.QuoteHandler;
+import com.oceanview.resort.handler.PricingHandler;
+import com.oceanview.resort.handler.StaticContentHandler;
+import com.oceanview.resort.metrics.MetricsFilter;
+import com.oceanview.resort.metrics.MetricsHandler;
+import com.oceanview.resort.repository.ReservationRepositories;
+import com.oceanview.resort.repository.ReservationRepository;
 import com.oceanview.resort.repository.UserRepository;
+import com.oceanview.resort.service.PricingEngine;
 import com.oceanview.resort.service.ReservationService;
+import com.oceanview.resort.server.CompressionFilter;
+import com.oceanview.resort.server.NioHttpServer;
+import com.oceanview.resort.server.OverloadFilter;
+import com.oceanview.resort.server.ServerExecutors;
+import com.oceanview.resort.util.ConfigUtil;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.util.concurrent.Executors;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
 
 /**
  * Main server application for Ocean View Resort
@@ -25,27 +47,52 @@ public class ResortServer {
     public static void main(String[] args) {
         try {
             // Initialize repositories and services
-            FileBasedReservationRepository repository = new FileBasedReservationRepository();
+            Path dataDir = Paths.get("data");
+            ReservationRepository repository = ReservationRepositories.open(dataDir);
             UserRepository userRepository = new UserRepository();
-            ReservationService service = new ReservationService(repository);
+            PricingEngine pricing = PricingEngine.load(Paths.get(ConfigUtil.get("resort.pricing.rules", "data/pricing-rules.json")));
+            ReservationService service = new ReservationService(repository, dataDir, pricing);
+            SessionStore sessions = new SessionStore();
+            CredentialVerifier credentials = new CredentialVerifier(userRepository, new PasswordHasher());
 
-            // Create HTTP server
-            server = HttpServer.create(new InetSocketAddress(PORT), 0);
+            // Create HTTP server (resort.server.engine = jdk or nio)
+            server = createServer(ConfigUtil.get("resort.server.engine", "jdk"));
 
             // Register handlers
-            server.createContext("/api/reservations", new ReservationHandler(service));
-            server.createContext("/api/auth", new AuthHandler(userRepository));
-            server.createContext("/api/users", new UserHandler(userRepository));
-            server.createContext("/swagger-ui", new SwaggerHandler());
-            server.createContext("/api-docs", new SwaggerHandler());
+            // Guests book through the public site, so only POST /api/reservations skips sign-in
+            register("/api/reservations", new ReservationHandler(service),
+                    authFilter(sessions, userRepository, null, exchange -> "POST".equals(exchange.getRequestMethod())
+                            && exchange.getRequestURI().getPath().equals("/api/reservations")));
+            // Quotes expose prices only, so guests can compare stays before booking
+            register("/api/quotes", new QuoteHandler(service));
+            register("/api/auth", new AuthHandler(credentials, sessions));
+            register("/api/users", new UserHandler(userRepository),
+                    authFilter(sessions, userRepository, "ADMIN", exchange -> false));
+            register("/api/pricing", new PricingHandler(pricing),
+                    authFilter(sessions, userRepository, "ADMIN", exchange -> false));
+            // Docs and frontend pages are read once here and served from memory
+            StaticContentHandler staticContent = new StaticContentHandler()
+                    .addResource("/swagger-ui", "/swagger-ui.html")
+                    .alias("/swagger-ui/", "/swagger-ui")
+                    .addResource("/api-docs/openapi.json", "/openapi.json")
+                    .addDirectory("/", Paths.get(ConfigUtil.get("resort.frontend.dir", "../frontend")));
+            register("/swagger-ui", staticContent);
+            register("/api-docs", staticContent);
+            register("/", staticContent);
+            register("/metrics", new MetricsHandler());
 
-            // Set executor for handling requests
-            server.setExecutor(Executors.newFixedThreadPool(10));
+            // Set executor for handling requests (resort.executor = bounded, virtual or fixed)
+            ExecutorService executor = ServerExecutors.create();
+            server.setExecutor(executor);
 
             // Add shutdown hook
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 System.out.println("\nShutting down server...");
                 server.stop(0);
+                executor.shutdown();
+                sessions.close();
+                credentials.close();
+                repository.close();
                 System.out.println("Server stopped.");
             }));
 
@@ -57,15 +104,24 @@ public class ResortServer {
             System.out.println();
             System.out.println("Server started successfully!");
             System.out.println("Port: " + PORT);
+            System.out.println("Engine: " + server.getClass().getSimpleName());
+            System.out.println("Executor: " + executor.getClass().getSimpleName());
+            System.out.println("Storage: " + repository.getClass().getSimpleName());
             System.out.println();
             System.out.println("API Endpoints:");
             System.out.println("  - GET    http://localhost:" + PORT + "/api/reservations");
             System.out.println("  - POST   http://localhost:" + PORT + "/api/reservations");
             System.out.println("  - GET    http://localhost:" + PORT + "/api/reservations/{refId}");
+            System.out.println("  - PUT    http://localhost:" + PORT + "/api/reservations/{refId}");
+            System.out.println("  - PATCH  http://localhost:" + PORT + "/api/reservations/{refId}");
+            System.out.println("  - DELETE http://localhost:" + PORT + "/api/reservations/{refId}");
             System.out.println("  - GET    http://localhost:" + PORT + "/api/reservations/stats");
+            System.out.println("  - POST   http://localhost:" + PORT + "/api/quotes");
             System.out.println();
             System.out.println("API Documentation:");
             System.out.println("  - Swagger UI: http://localhost:" + PORT + "/swagger-ui");
+            System.out.println("  - Metrics:    http://localhost:" + PORT + "/metrics");
+            System.out.println("  - Frontend:   http://localhost:" + PORT + "/");
             System.out.println();
             System.out.println("Press Ctrl+C to stop the server.");
 
@@ -75,4 +131,47 @@ public class ResortServer {
             System.exit(1);
         }
     }
+
+    /**
+     * The JDK's built-in server, or the selector-based NioHttpServer; both run the same handlers
+     */
+    static HttpServer createServer(String engine) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(PORT);
+        switch (engine.toLowerCase()) {
+            case "jdk":
+                // Without TCP_NODELAY small responses wait on delayed ACKs
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+                return HttpServer.create(address, 0);
+            case "nio":
+                return NioHttpServer.create(address, ConfigUtil.getInt("resort.nio.backlog", 1024));
+            default:
+                throw new IllegalArgumentException("Unknown resort.server.engine: " + engine);
+        }
+    }
+
+    /**
+     * Create a context with the filters every route shares
+     */
+    private static void register(String path, HttpHandler handler, Filter... extraFilters) {
+        HttpContext context = server.createContext(path, handler);
+        context.getFilters().add(new MetricsFilter(path));
+        context.getFilters().add(new OverloadFilter());
+        context.getFilters().add(new CompressionFilter());
+        for (Filter filter : extraFilters) {
+            if (filter != null) {
+                context.getFilters().add(filter);
+            }
+        }
+    }
+
+    /**
+     * Session check for a context, or null when resort.auth.required=false turns sign-in off
+     */
+    private static Filter authFilter(SessionStore sessions, UserRepository users, String requiredRole,
+            Predicate<HttpExchange> isPublic) {
+        if (!ConfigUtil.getBoolean("resort.auth.required", true)) {
+            return null;
+        }
+        return new AuthFilter(sessions, users, requiredRole, isPublic);
+    }
 }
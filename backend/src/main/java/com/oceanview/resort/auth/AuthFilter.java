@@ -0,0 +1,93 @@
+package com.oceanview.resort.auth;
+
+import com.oceanview.resort.model.User;
+import com.oceanview.resort.repository.UserRepository;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+
+/**
+ * Requires a valid session token ("Authorization: Bearer ...") before a request reaches its handler.
+ * The session is attached to the exchange as the "session" attribute.
+ * Each request also looks the user up in the user cache, so a session ends as soon as
+ * its user is deleted or given a different role.
+ */
+public class AuthFilter extends Filter {
+
+    public static final String SESSION_ATTRIBUTE = "session";
+
+    private final SessionStore sessions;
+    private final UserRepository users;
+    private final String requiredRole;
+    private final Predicate<HttpExchange> isPublic;
+
+    /**
+     * @param requiredRole role the session must have, or null for any signed-in user
+     * @param isPublic     requests that may pass without a session
+     */
+    public AuthFilter(SessionStore sessions, UserRepository users, String requiredRole,
+            Predicate<HttpExchange> isPublic) {
+        this.sessions = sessions;
+        this.users = users;
+        this.requiredRole = requiredRole;
+        this.isPublic = isPublic;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        // CORS preflight requests never carry credentials
+        if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod()) || isPublic.test(exchange)) {
+            chain.doFilter(exchange);
+            return;
+        }
+
+        String token = bearerToken(exchange);
+        Session session = sessions.validate(token);
+        if (session == null) {
+            reject(exchange, 401, "{\"message\": \"Authentication required\"}");
+            return;
+        }
+        String currentRole = users.findByUsername(session.getUsername()).map(User::getRole).orElse(null);
+        if (currentRole == null || !currentRole.equalsIgnoreCase(session.getRole())) {
+            sessions.revoke(token);
+            reject(exchange, 401, "{\"message\": \"Authentication required\"}");
+            return;
+        }
+        if (requiredRole != null && !requiredRole.equalsIgnoreCase(session.getRole())) {
+            reject(exchange, 403, "{\"message\": \"Access denied. Admin only.\"}");
+            return;
+        }
+        exchange.setAttribute(SESSION_ATTRIBUTE, session);
+        chain.doFilter(exchange);
+    }
+
+    /**
+     * The token from an "Authorization: Bearer ..." header, or null
+     */
+    public static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return header.substring(7).trim();
+    }
+
+    private void reject(HttpExchange exchange, int statusCode, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Checks the session token" + (requiredRole != null ? " for role " + requiredRole : "");
+    }
+}
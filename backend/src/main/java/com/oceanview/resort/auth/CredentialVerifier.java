@@ -0,0 +1,141 @@
+package com.oceanview.resort.auth;
+
+import com.oceanview.resort.model.User;
+import com.oceanview.resort.repository.UserRepository;
+import com.oceanview.resort.util.ConfigUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks login credentials against the slow password hashes in UserRepository.
+ * Hash checks run on a small bounded pool so a login burst cannot starve the request
+ * threads; when its queue is full, logins are refused with RejectedExecutionException.
+ * Recent successful checks are remembered briefly as a fast SHA-256 digest, so repeated
+ * logins with the same password skip the slow hash.
+ */
+public class CredentialVerifier {
+
+    private static final int MAX_CACHED = 10000;
+
+    private final UserRepository userRepository;
+    private final PasswordHasher hasher;
+    private final ThreadPoolExecutor hashingPool;
+    private final long cacheTtlMillis;
+    private final long timeoutMillis;
+    private final Map<String, CachedCredential> recent = new ConcurrentHashMap<>();
+
+    public CredentialVerifier(UserRepository userRepository, PasswordHasher hasher) {
+        this(userRepository, hasher,
+                ConfigUtil.getInt("resort.password.threads", Runtime.getRuntime().availableProcessors()),
+                ConfigUtil.getInt("resort.password.queue", 64),
+                TimeUnit.SECONDS.toMillis(ConfigUtil.getLong("resort.password.cacheSeconds", 300)));
+    }
+
+    public CredentialVerifier(UserRepository userRepository, PasswordHasher hasher, int threads, int queueLimit,
+            long cacheTtlMillis) {
+        this.userRepository = userRepository;
+        this.hasher = hasher;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.timeoutMillis = ConfigUtil.getLong("resort.password.timeoutMs", 5000);
+        AtomicInteger counter = new AtomicInteger();
+        this.hashingPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueLimit)), r -> {
+                    Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * The user for a username and password, or empty when they do not match
+     *
+     * @throws RejectedExecutionException when too many logins are already waiting to be checked
+     */
+    public Optional<User> authenticate(String username, String password) {
+        Optional<User> userOpt = userRepository.findByUsername(username);
+        if (userOpt.isEmpty() || password == null) {
+            return Optional.empty();
+        }
+        User user = userOpt.get();
+        String stored = user.getPassword();
+
+        CachedCredential cached = recent.get(username);
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.matches(stored, password, now)) {
+            return userOpt;
+        }
+
+        if (!verifySlowly(password, stored)) {
+            return Optional.empty();
+        }
+        if (recent.size() >= MAX_CACHED) {
+            recent.clear();
+        }
+        recent.put(username, new CachedCredential(stored, password, now + cacheTtlMillis));
+        return userOpt;
+    }
+
+    private boolean verifySlowly(String password, String stored) {
+        Future<Boolean> result = hashingPool.submit(() -> hasher.verify(password, stored));
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            return false;
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new RejectedExecutionException("Password check timed out", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password check failed", e.getCause());
+        }
+    }
+
+    public void close() {
+        hashingPool.shutdownNow();
+    }
+
+    /**
+     * A recently verified password, kept only as a digest tied to the stored hash it matched
+     */
+    private static class CachedCredential {
+        private final String storedHash;
+        private final byte[] digest;
+        private final long expiresAtMillis;
+
+        CachedCredential(String storedHash, String password, long expiresAtMillis) {
+            this.storedHash = storedHash;
+            this.digest = digest(storedHash, password);
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        boolean matches(String currentHash, String password, long nowMillis) {
+            return nowMillis < expiresAtMillis
+                    && storedHash.equals(currentHash)
+                    && MessageDigest.isEqual(digest, digest(currentHash, password));
+        }
+
+        private static byte[] digest(String storedHash, String password) {
+            try {
+                MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+                sha256.update(storedHash.getBytes(StandardCharsets.UTF_8));
+                return sha256.digest(password.getBytes(StandardCharsets.UTF_8));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
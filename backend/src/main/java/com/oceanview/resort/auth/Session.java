@@ -0,0 +1,38 @@
+package com.oceanview.resort.auth;
+
+/**
+ * An authenticated login, identified by an opaque token
+ */
+public class Session {
+    private final String token;
+    private final String username;
+    private final String role;
+    private final long expiresAtMillis;
+
+    public Session(String token, String username, String role, long expiresAtMillis) {
+        this.token = token;
+        this.username = username;
+        this.role = role;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
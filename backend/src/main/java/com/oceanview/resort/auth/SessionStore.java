@@ -0,0 +1,110 @@
+package com.oceanview.resort.auth;
+
+import com.oceanview.resort.util.ConfigUtil;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, expiring cache of login sessions keyed by opaque random token.
+ * Validating a token is a single hash lookup; a background sweeper drops expired sessions.
+ */
+public class SessionStore {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final long ttlMillis;
+    private final int maxSessions;
+    private final ScheduledExecutorService sweeper;
+
+    public SessionStore() {
+        this(TimeUnit.MINUTES.toMillis(ConfigUtil.getLong("resort.session.ttlMinutes", 480)),
+                ConfigUtil.getInt("resort.session.max", 10000));
+    }
+
+    public SessionStore(long ttlMillis, int maxSessions) {
+        this.ttlMillis = ttlMillis;
+        this.maxSessions = maxSessions;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::removeExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Start a session for an authenticated user
+     */
+    public Session issue(String username, String role) {
+        if (sessions.size() >= maxSessions) {
+            makeRoom();
+        }
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session session = new Session(token, username, role, System.currentTimeMillis() + ttlMillis);
+        sessions.put(token, session);
+        return session;
+    }
+
+    /**
+     * The live session for a token, or null when it is unknown or expired
+     */
+    public Session validate(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (session.isExpired(System.currentTimeMillis())) {
+            sessions.remove(token, session);
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * End a session, e.g. on logout
+     */
+    public void revoke(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> session.isExpired(now));
+    }
+
+    /**
+     * Drop expired sessions, then the one closest to expiry if the store is still full
+     */
+    private void makeRoom() {
+        removeExpired();
+        if (sessions.size() >= maxSessions) {
+            sessions.values().stream()
+                    .min(Comparator.comparingLong(Session::getExpiresAtMillis))
+                    .ifPresent(oldest -> sessions.remove(oldest.getToken(), oldest));
+        }
+    }
+
+    public void close() {
+        sweeper.shutdownNow();
+    }
+}
@@ -2,21 +2,28 @@ package com.oceanview.resort.handler;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.oceanview.resort.auth.AuthFilter;
+import com.oceanview.resort.auth.CredentialVerifier;
+import com.oceanview.resort.auth.Session;
+import com.oceanview.resort.auth.SessionStore;
 import com.oceanview.resort.model.User;
-import com.oceanview.resort.repository.UserRepository;
+import com.oceanview.resort.util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 public class AuthHandler implements HttpHandler {
-    private final UserRepository userRepository;
-    private final Gson gson = new Gson();
+    private final CredentialVerifier credentials;
+    private final SessionStore sessions;
+    private final Gson gson = JsonUtil.getGson();
 
-    public AuthHandler(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public AuthHandler(CredentialVerifier credentials, SessionStore sessions) {
+        this.credentials = credentials;
+        this.sessions = sessions;
     }
 
     @Override
@@ -24,14 +31,17 @@ public class AuthHandler implements HttpHandler {
         // Add CORS headers
         exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
         exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "POST, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
 
         if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) {
             exchange.sendResponseHeaders(204, -1);
             return;
         }
 
-        if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+        if ("POST".equalsIgnoreCase(exchange.getRequestMethod())
+                && exchange.getRequestURI().getPath().equals("/api/auth/logout")) {
+            handleLogout(exchange);
+        } else if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
             System.out.println("Handling login request...");
             handleLogin(exchange);
         } else {
@@ -51,7 +61,6 @@ public class AuthHandler implements HttpHandler {
                 }
             }
             String body = bodyBuilder.toString();
-            System.out.println("Request body: " + body);
 
             if (body.isEmpty()) {
                 System.out.println("Empty request body!");
@@ -71,14 +80,17 @@ public class AuthHandler implements HttpHandler {
             String password = loginData.get("password").getAsString();
             System.out.println("Login attempt for: " + username);
 
-            Optional<User> userOpt = userRepository.findByUsername(username);
+            Optional<User> userOpt = credentials.authenticate(username, password);
 
-            if (userOpt.isPresent() && userOpt.get().getPassword().equals(password)) {
+            if (userOpt.isPresent()) {
                 System.out.println("Login successful for " + username);
                 User user = userOpt.get();
+                Session session = sessions.issue(user.getUsername(), user.getRole());
                 JsonObject response = new JsonObject();
                 response.addProperty("username", user.getUsername());
                 response.addProperty("role", user.getRole());
+                response.addProperty("token", session.getToken());
+                response.addProperty("expiresIn", sessions.getTtlMillis() / 1000);
                 response.addProperty("success", true);
 
                 sendResponse(exchange, 200, response.toString());
@@ -89,6 +101,9 @@ public class AuthHandler implements HttpHandler {
                 response.addProperty("message", "Invalid credentials");
                 sendResponse(exchange, 401, response.toString());
             }
+        } catch (RejectedExecutionException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendResponse(exchange, 503, "{\"success\": false, \"message\": \"Too many login attempts, please retry\"}");
         } catch (Exception e) {
             System.err.println("Error in handleLogin: " + e.getMessage());
             e.printStackTrace();
@@ -96,6 +111,11 @@ public class AuthHandler implements HttpHandler {
         }
     }
 
+    private void handleLogout(HttpExchange exchange) throws IOException {
+        sessions.revoke(AuthFilter.bearerToken(exchange));
+        sendResponse(exchange, 200, "{\"success\": true}");
+    }
+
     private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
         byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
         exchange.getResponseHeaders().set("Content-Type", "application/json");
@@ -0,0 +1,89 @@
+package com.oceanview.resort.handler;
+
+import com.google.gson.JsonParseException;
+import com.oceanview.resort.service.PricingEngine;
+import com.oceanview.resort.service.PricingRules;
+import com.oceanview.resort.util.JsonUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * HTTP handler for the rate rules: GET /api/pricing/rules shows them, PUT replaces them.
+ * New rules apply to stays priced from then on; existing reservations keep their bills.
+ */
+public class PricingHandler implements HttpHandler {
+
+    private final PricingEngine pricing;
+
+    public PricingHandler(PricingEngine pricing) {
+        this.pricing = pricing;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, PUT, OPTIONS");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
+
+        String method = exchange.getRequestMethod();
+        if ("OPTIONS".equals(method)) {
+            exchange.sendResponseHeaders(204, -1);
+            return;
+        }
+        if (!exchange.getRequestURI().getPath().equals("/api/pricing/rules")) {
+            sendResponse(exchange, 404, "{\"message\":\"Not found\"}");
+            return;
+        }
+
+        if ("GET".equals(method)) {
+            sendResponse(exchange, 200, JsonUtil.toJson(pricing.getRules()));
+        } else if ("PUT".equals(method)) {
+            handlePut(exchange);
+        } else {
+            sendResponse(exchange, 405, "{\"message\":\"Method not allowed\"}");
+        }
+    }
+
+    private void handlePut(HttpExchange exchange) throws IOException {
+        PricingRules rules;
+        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            rules = JsonUtil.getGson().fromJson(reader, PricingRules.class);
+        } catch (JsonParseException | DateTimeParseException e) {
+            sendResponse(exchange, 400, "{\"message\":\"Invalid JSON format\"}");
+            return;
+        }
+        if (rules == null) {
+            sendResponse(exchange, 400, "{\"message\":\"Request body is required\"}");
+            return;
+        }
+        try {
+            pricing.setRules(rules);
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, JsonUtil.toJson(Map.of("message", e.getMessage())));
+            return;
+        } catch (IOException e) {
+            // The rules file could not be written; the previous rules stay in force
+            System.err.println("Error saving pricing rules: " + e.getMessage());
+            sendResponse(exchange, 500, "{\"message\":\"Failed to save pricing rules\"}");
+            return;
+        }
+        sendResponse(exchange, 200, JsonUtil.toJson(pricing.getRules()));
+    }
+
+    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
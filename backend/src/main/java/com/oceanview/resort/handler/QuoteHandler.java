@@ -0,0 +1,84 @@
+package com.oceanview.resort.handler;
+
+import com.google.gson.JsonParseException;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.service.Quote;
+import com.oceanview.resort.service.ReservationService;
+import com.oceanview.resort.util.ConfigUtil;
+import com.oceanview.resort.util.JsonUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * HTTP handler for pricing candidate stays without booking them.
+ * POST /api/quotes takes a JSON array of stays (roomType, boardType, checkInDate,
+ * checkOutDate) and answers with one quote per stay, in the same order.
+ */
+public class QuoteHandler implements HttpHandler {
+
+    private static final int MAX_STAYS = ConfigUtil.getInt("resort.quotes.maxStays", 5000);
+
+    private final ReservationService service;
+
+    public QuoteHandler(ReservationService service) {
+        this.service = service;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "POST, OPTIONS");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
+
+        if ("OPTIONS".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(204, -1);
+            return;
+        }
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, "{\"message\":\"Method not allowed\"}");
+            return;
+        }
+
+        Reservation[] stays;
+        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            stays = JsonUtil.getGson().fromJson(reader, Reservation[].class);
+        } catch (JsonParseException | DateTimeParseException e) {
+            sendResponse(exchange, 400, "{\"message\":\"Expected a JSON array of stays\"}");
+            return;
+        }
+        if (stays == null || stays.length == 0) {
+            sendResponse(exchange, 400, "{\"message\":\"Expected a JSON array of stays\"}");
+            return;
+        }
+        if (stays.length > MAX_STAYS) {
+            sendResponse(exchange, 413, "{\"message\":\"At most " + MAX_STAYS + " stays per request\"}");
+            return;
+        }
+        for (int i = 0; i < stays.length; i++) {
+            if (stays[i] == null) {
+                stays[i] = new Reservation();
+            }
+        }
+
+        List<Quote> quotes = service.quoteAll(Arrays.asList(stays));
+        sendResponse(exchange, 200, JsonUtil.toJson(quotes));
+    }
+
+    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
@@ -1,25 +1,52 @@
 package com.oceanview.resort.handler;
 
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonWriter;
 import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.server.Gzip;
+import com.oceanview.resort.service.BulkRow;
+import com.oceanview.resort.service.ChangeResult;
+import com.oceanview.resort.service.CreateResult;
+import com.oceanview.resort.service.ReservationQuery;
 import com.oceanview.resort.service.ReservationService;
+import com.oceanview.resort.util.ConfigUtil;
 import com.oceanview.resort.util.JsonUtil;
+import com.oceanview.resort.util.ReservationCsv;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * HTTP handler for Reservation API endpoints
  */
 public class ReservationHandler implements HttpHandler {
 
+    private static final int MAX_BULK_ROWS = ConfigUtil.getInt("resort.bulk.maxRows", 10000);
+
     private final ReservationService service;
+    private final ResponseCache cache = new ResponseCache();
 
     public ReservationHandler(ReservationService service) {
         this.service = service;
@@ -54,10 +81,32 @@ public class ReservationHandler implements HttpHandler {
                 } else {
                     sendResponse(exchange, 405, "{\"message\":\"Method not allowed\"}");
                 }
+            } else if (path.equals("/api/reservations/bulk")) {
+                if ("POST".equals(method)) {
+                    handleBulkImport(exchange);
+                } else {
+                    sendResponse(exchange, 405, "{\"message\":\"Method not allowed\"}");
+                }
+            } else if (path.equals("/api/reservations/export")) {
+                if ("GET".equals(method)) {
+                    handleExport(exchange);
+                } else {
+                    sendResponse(exchange, 405, "{\"message\":\"Method not allowed\"}");
+                }
+            } else if (path.equals("/api/reservations/availability")) {
+                if ("GET".equals(method)) {
+                    handleGetAvailability(exchange);
+                } else {
+                    sendResponse(exchange, 405, "{\"message\":\"Method not allowed\"}");
+                }
             } else if (path.startsWith("/api/reservations/")) {
                 String refId = path.substring("/api/reservations/".length());
                 if ("GET".equals(method)) {
                     handleGetByRefId(exchange, refId);
+                } else if ("PUT".equals(method) || "PATCH".equals(method)) {
+                    handleUpdate(exchange, refId, "PATCH".equals(method));
+                } else if ("DELETE".equals(method)) {
+                    handleCancel(exchange, refId);
                 } else {
                     sendResponse(exchange, 405, "{\"message\":\"Method not allowed\"}");
                 }
@@ -71,51 +120,457 @@ public class ReservationHandler implements HttpHandler {
     }
 
     private void handleGetAll(HttpExchange exchange) throws IOException {
-        List<Reservation> reservations = service.getAll();
-        String json = JsonUtil.toJson(reservations);
-        sendResponse(exchange, 200, json);
+        Map<String, String> params;
+        ReservationQuery query;
+        try {
+            params = parseQuery(exchange.getRequestURI().getRawQuery());
+            query = toReservationQuery(params);
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"message\":\"" + e.getMessage() + "\"}");
+            return;
+        }
+
+        if ("true".equalsIgnoreCase(params.get("stream"))) {
+            streamReservations(exchange, service.search(query));
+            return;
+        }
+
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        sendCached(exchange, "list:" + (rawQuery == null ? "" : rawQuery), () -> {
+            List<Reservation> reservations = service.search(query).collect(Collectors.toList());
+            Map<String, String> headers = new HashMap<>();
+            if (query.getLimit() != Integer.MAX_VALUE && reservations.size() == query.getLimit()) {
+                Long lastId = reservations.get(reservations.size() - 1).getId();
+                headers.put("X-Next-Cursor", String.valueOf(lastId));
+            }
+            return new ResponseCache.Entry(JsonUtil.toJson(reservations).getBytes(StandardCharsets.UTF_8), headers);
+        });
+    }
+
+    /**
+     * Answer a read from the response cache: 304 when the client already holds the current
+     * body, otherwise the cached bytes, rebuilding them only after the store has changed
+     *
+     * @return false, with nothing sent, when the builder found nothing to send
+     */
+    private boolean sendCached(HttpExchange exchange, String key, Supplier<ResponseCache.Entry> builder)
+            throws IOException {
+        ResponseCache.Entry entry = cache.get(key, service.getVersion(), builder);
+        if (entry == null) {
+            return false;
+        }
+        boolean gzip = entry.getBody().length >= Gzip.MIN_BYTES && Gzip.isAccepted(exchange);
+        exchange.getResponseHeaders().set("ETag", gzip ? entry.getGzipEtag() : entry.getEtag());
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        entry.getHeaders().forEach(exchange.getResponseHeaders()::set);
+        if (entry.matches(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return true;
+        }
+        // Cached bodies are compressed once and reused, so the compression filter is bypassed
+        byte[] body = entry.getBody();
+        if (gzip) {
+            body = entry.getGzipBody();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+        return true;
+    }
+
+    /**
+     * Write reservations one at a time as a chunked JSON array, without building the whole body in memory
+     */
+    private void streamReservations(HttpExchange exchange, Stream<Reservation> reservations) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)))) {
+            writer.beginArray();
+            Iterator<Reservation> it = reservations.iterator();
+            while (it.hasNext()) {
+                JsonUtil.getGson().toJson(it.next(), Reservation.class, writer);
+            }
+            writer.endArray();
+        }
+    }
+
+    private static ReservationQuery toReservationQuery(Map<String, String> params) {
+        ReservationQuery query = new ReservationQuery();
+        if (params.containsKey("from") || params.containsKey("to")) {
+            query.setDateRange(parseDate(params.get("from"), "from"), parseDate(params.get("to"), "to"));
+        }
+        if (params.containsKey("roomType")) {
+            query.setRoomType(parseEnum(Reservation.RoomType.class, params.get("roomType"), "roomType"));
+        }
+        if (params.containsKey("boardType")) {
+            query.setBoardType(parseEnum(Reservation.BoardType.class, params.get("boardType"), "boardType"));
+        }
+        if (params.containsKey("guestName")) {
+            query.setGuestNamePrefix(params.get("guestName"));
+        }
+        if (params.containsKey("phone")) {
+            query.setPhone(params.get("phone"));
+        }
+        if (params.containsKey("cursor")) {
+            query.setAfterId(parseNumber(params.get("cursor"), "cursor"));
+        }
+        if (params.containsKey("offset")) {
+            query.setOffset(parseNumber(params.get("offset"), "offset").intValue());
+        }
+        if (params.containsKey("limit")) {
+            query.setLimit(parseNumber(params.get("limit"), "limit").intValue());
+        }
+        return query;
+    }
+
+    private static LocalDate parseDate(String value, String name) {
+        try {
+            return LocalDate.parse(value == null ? "" : value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be a date in yyyy-MM-dd format");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String name) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + " must be one of " + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    private static Long parseNumber(String value, String name) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
     }
 
     private void handleCreate(HttpExchange exchange) throws IOException {
+        Reservation reservation;
         try {
             String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
-            Reservation reservation = JsonUtil.fromJson(requestBody, Reservation.class);
-
-            Reservation created = service.create(reservation);
-            String json = JsonUtil.toJson(created);
-            sendResponse(exchange, 200, json);
-        } catch (JsonSyntaxException e) {
+            reservation = JsonUtil.fromJson(requestBody, Reservation.class);
+        } catch (JsonSyntaxException | DateTimeParseException e) {
             sendResponse(exchange, 400, "{\"message\":\"Invalid JSON format\"}");
-        } catch (Exception e) {
+            return;
+        }
+        if (reservation == null) {
+            sendResponse(exchange, 400, "{\"message\":\"Request body is required\"}");
+            return;
+        }
+
+        CreateResult result = service.tryCreate(reservation);
+        if (result.isCreated()) {
+            sendResponse(exchange, 200, JsonUtil.toJson(result.getReservation()));
+            return;
+        }
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("message", result.getMessage());
+        error.put("errors", result.getErrors());
+        sendResponse(exchange, 400, JsonUtil.toJson(error));
+    }
+
+    /**
+     * Import reservations from JSON lines or CSV (the legacy reservations.txt layout).
+     * The body is read a line at a time; every readable row is validated and the valid
+     * ones are stored in one write. The reply reports the outcome of each row.
+     */
+    private void handleBulkImport(HttpExchange exchange) throws IOException {
+        Map<String, String> params;
+        try {
+            params = parseQuery(exchange.getRequestURI().getRawQuery());
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"message\":\"" + e.getMessage() + "\"}");
+            return;
+        }
+        String format = params.getOrDefault("format", formatOf(exchange.getRequestHeaders().getFirst("Content-Type")));
+
+        List<BulkRow> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == null) {
+                    format = line.trim().startsWith("{") ? "jsonl" : "csv";
+                }
+                if ("csv".equals(format) && lineNumber == 1 && ReservationCsv.isHeader(line)) {
+                    continue;
+                }
+                if (rows.size() == MAX_BULK_ROWS) {
+                    sendResponse(exchange, 413, "{\"message\":\"At most " + MAX_BULK_ROWS + " rows per import\"}");
+                    return;
+                }
+                rows.add(parseBulkRow(line, lineNumber, format));
+            }
+        }
+        if (format != null && !"csv".equals(format) && !"jsonl".equals(format)) {
+            sendResponse(exchange, 400, "{\"message\":\"format must be csv or jsonl\"}");
+            return;
+        }
+        if (rows.isEmpty()) {
+            sendResponse(exchange, 400, "{\"message\":\"No rows to import\"}");
+            return;
+        }
+
+        int created = service.createAll(rows);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("created", created);
+        report.put("rejected", rows.size() - created);
+        report.put("rows", rows);
+        sendResponse(exchange, 200, JsonUtil.toJson(report));
+    }
+
+    private static BulkRow parseBulkRow(String line, int lineNumber, String format) {
+        try {
+            if ("csv".equals(format)) {
+                List<String> fields = ReservationCsv.split(line);
+                return BulkRow.parsed(lineNumber, fields.get(0), ReservationCsv.fromFields(fields));
+            }
+            Reservation reservation = JsonUtil.fromJson(line, Reservation.class);
+            if (reservation == null) {
+                return BulkRow.unreadable(lineNumber, "Empty row");
+            }
+            return BulkRow.parsed(lineNumber, reservation.getReferenceId(), reservation);
+        } catch (JsonParseException e) {
+            return BulkRow.unreadable(lineNumber, "Invalid JSON format");
+        } catch (DateTimeParseException e) {
+            return BulkRow.unreadable(lineNumber, "Dates must be in yyyy-MM-dd format");
+        } catch (IllegalArgumentException e) {
+            return BulkRow.unreadable(lineNumber, e.getMessage());
+        }
+    }
+
+    /**
+     * Stream reservations as CSV or JSON lines; accepts the same filters as the list endpoint
+     */
+    private void handleExport(HttpExchange exchange) throws IOException {
+        String format;
+        ReservationQuery query;
+        try {
+            Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            format = params.getOrDefault("format", "csv");
+            if (!"csv".equals(format) && !"jsonl".equals(format)) {
+                throw new IllegalArgumentException("format must be csv or jsonl");
+            }
+            query = toReservationQuery(params);
+        } catch (IllegalArgumentException e) {
             sendResponse(exchange, 400, "{\"message\":\"" + e.getMessage() + "\"}");
+            return;
+        }
+
+        boolean csv = "csv".equals(format);
+        exchange.getResponseHeaders().set("Content-Type", csv ? "text/csv; charset=utf-8" : "application/x-ndjson");
+        exchange.getResponseHeaders().set("Content-Disposition",
+                "attachment; filename=\"reservations." + format + "\"");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            if (csv) {
+                writer.write(ReservationCsv.HEADER);
+                writer.write('\n');
+            }
+            Iterator<Reservation> it = service.search(query).iterator();
+            while (it.hasNext()) {
+                if (csv) {
+                    ReservationCsv.write(it.next(), writer);
+                } else {
+                    writer.write(JsonUtil.toCompactJson(it.next()));
+                    writer.write('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * Import format named by a Content-Type, or null to decide from the body
+     */
+    private static String formatOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String type = contentType.toLowerCase();
+        if (type.contains("csv")) {
+            return "csv";
+        }
+        if (type.contains("ndjson") || type.contains("jsonl") || type.contains("json-seq")) {
+            return "jsonl";
         }
+        return null;
     }
 
     private void handleGetByRefId(HttpExchange exchange, String refId) throws IOException {
-        Reservation reservation = service.getByRefId(refId);
-        if (reservation != null) {
-            String json = JsonUtil.toJson(reservation);
-            sendResponse(exchange, 200, json);
-        } else {
+        boolean found = sendCached(exchange, "reservation:" + refId, () -> {
+            Reservation reservation = service.getByRefId(refId);
+            return reservation == null ? null
+                    : new ResponseCache.Entry(JsonUtil.toJson(reservation).getBytes(StandardCharsets.UTF_8));
+        });
+        if (!found) {
             sendResponse(exchange, 404, "{\"message\":\"Reservation not found\"}");
         }
     }
 
+    /**
+     * PUT replaces every editable field, PATCH only those present in the body.
+     * The change is made only if the reservation is still at the version named by
+     * If-Match, or failing that by the body's "version" field; with neither it always applies.
+     */
+    private void handleUpdate(HttpExchange exchange, String refId, boolean partial) throws IOException {
+        Reservation changes;
+        try {
+            String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            changes = JsonUtil.fromJson(requestBody, Reservation.class);
+        } catch (JsonParseException | DateTimeParseException | IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"message\":\"Invalid JSON format\"}");
+            return;
+        }
+        if (changes == null) {
+            sendResponse(exchange, 400, "{\"message\":\"Request body is required\"}");
+            return;
+        }
+
+        Long expectedVersion = expectedVersion(exchange, refId);
+        if (expectedVersion == null) {
+            expectedVersion = changes.getVersion();
+        }
+        sendChangeResult(exchange, service.update(refId, changes, partial, expectedVersion));
+    }
+
+    private void handleCancel(HttpExchange exchange, String refId) throws IOException {
+        sendChangeResult(exchange, service.cancel(refId, expectedVersion(exchange, refId)));
+    }
+
+    /**
+     * The version an If-Match header asks for: either a plain version number, or an ETag from
+     * a GET of the reservation, which stands for its current version only while the body is unchanged
+     *
+     * @return null without If-Match; -1, which no reservation has, when the ETag is stale
+     */
+    private Long expectedVersion(HttpExchange exchange, String refId) {
+        String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        if (!tag.isEmpty() && tag.chars().allMatch(Character::isDigit)) {
+            try {
+                return Long.parseLong(tag);
+            } catch (NumberFormatException e) {
+                return -1L;
+            }
+        }
+        Reservation current = service.getByRefId(refId);
+        if (current == null) {
+            return null;
+        }
+        ResponseCache.Entry entry = new ResponseCache.Entry(JsonUtil.toJson(current).getBytes(StandardCharsets.UTF_8));
+        return entry.matches(ifMatch) ? ReservationService.versionOf(current) : -1L;
+    }
+
+    private void sendChangeResult(HttpExchange exchange, ChangeResult result) throws IOException {
+        switch (result.getOutcome()) {
+            case UPDATED:
+                String json = JsonUtil.toJson(result.getReservation());
+                exchange.getResponseHeaders().set("ETag",
+                        new ResponseCache.Entry(json.getBytes(StandardCharsets.UTF_8)).getEtag());
+                sendResponse(exchange, 200, json);
+                break;
+            case DELETED:
+                exchange.sendResponseHeaders(204, -1);
+                exchange.close();
+                break;
+            case NOT_FOUND:
+                sendResponse(exchange, 404, "{\"message\":\"Reservation not found\"}");
+                break;
+            case VERSION_CONFLICT:
+                Map<String, Object> conflict = new LinkedHashMap<>();
+                conflict.put("message", result.getMessage());
+                conflict.put("version", ReservationService.versionOf(result.getReservation()));
+                sendResponse(exchange, 412, JsonUtil.toJson(conflict));
+                break;
+            default:
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("message", result.getMessage());
+                error.put("errors", result.getErrors());
+                sendResponse(exchange, 400, JsonUtil.toJson(error));
+        }
+    }
+
+    private void handleGetAvailability(HttpExchange exchange) throws IOException {
+        Reservation.RoomType roomType;
+        LocalDate checkIn;
+        LocalDate checkOut;
+        try {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            roomType = Reservation.RoomType.valueOf(query.getOrDefault("roomType", "").toUpperCase());
+            checkIn = LocalDate.parse(query.getOrDefault("checkInDate", ""));
+            checkOut = LocalDate.parse(query.getOrDefault("checkOutDate", ""));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            sendResponse(exchange, 400,
+                    "{\"message\":\"roomType, checkInDate and checkOutDate (yyyy-MM-dd) are required\"}");
+            return;
+        }
+        if (!checkOut.isAfter(checkIn)) {
+            sendResponse(exchange, 400, "{\"message\":\"Check-out must be at least one day after Check-in\"}");
+            return;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("roomType", roomType);
+        result.put("checkInDate", checkIn);
+        result.put("checkOutDate", checkOut);
+        result.put("available", service.isAvailable(roomType, checkIn, checkOut));
+        sendResponse(exchange, 200, JsonUtil.toJson(result));
+    }
+
     private void handleGetStats(HttpExchange exchange) throws IOException {
-        List<Reservation> all = service.getAll();
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalBookings", all.size());
-        stats.put("totalRevenue", service.calculateTotalRevenue());
-        stats.put("occupancyRate", "85%"); // Mocked for demonstration
+        // Occupancy is for tonight, so the cached stats also turn over at midnight
+        sendCached(exchange, "stats:" + LocalDate.now(),
+                () -> new ResponseCache.Entry(JsonUtil.toJson(service.getStats()).getBytes(StandardCharsets.UTF_8)));
+    }
 
-        String json = JsonUtil.toJson(stats);
-        sendResponse(exchange, 200, json);
+    /**
+     * @throws IllegalArgumentException when a name or value has a malformed %-escape
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            try {
+                params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                // The decoder's message quotes the input, so report it without echoing
+                throw new IllegalArgumentException("Malformed query string");
+            }
+        }
+        return params;
     }
 
     private void addCorsHeaders(HttpExchange exchange) {
         exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, PATCH, DELETE, OPTIONS");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization, If-None-Match, If-Match");
+        exchange.getResponseHeaders().add("Access-Control-Expose-Headers", "X-Next-Cursor, ETag");
     }
 
     private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
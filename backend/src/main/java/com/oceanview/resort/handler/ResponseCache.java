@@ -0,0 +1,124 @@
+package com.oceanview.resort.handler;
+
+import com.oceanview.resort.server.Gzip;
+import com.oceanview.resort.util.ConfigUtil;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Serialized response bodies keyed by request, each tagged with the store version it was
+ * built from. A cached body is reused until the version moves on, and its ETag (a hash of
+ * the bytes) lets an unchanged poll be answered 304 without touching the body at all.
+ */
+public class ResponseCache {
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public ResponseCache() {
+        this(ConfigUtil.getInt("resort.cache.maxEntries", 256));
+    }
+
+    public ResponseCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * The cached response for a key at the given store version, building and caching it when
+     * missing or stale. A builder may return null (e.g. not found), which is passed on uncached.
+     */
+    public Entry get(String key, long version, Supplier<Entry> builder) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version == version) {
+            return entry;
+        }
+        Entry built = builder.get();
+        if (built == null) {
+            entries.remove(key);
+            return null;
+        }
+        built.version = version;
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        entries.put(key, built);
+        return built;
+    }
+
+    /**
+     * A response body ready to send, with its ETag and any extra headers
+     */
+    public static class Entry {
+        private final byte[] body;
+        private final String etag;
+        private volatile byte[] gzipBody;
+        private final Map<String, String> headers;
+        private volatile long version;
+
+        public Entry(byte[] body) {
+            this(body, Collections.emptyMap());
+        }
+
+        public Entry(byte[] body, Map<String, String> headers) {
+            this.body = body;
+            this.headers = headers;
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            this.etag = "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length) + "\"";
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * The body gzip-compressed, computed on first use and kept with the entry
+         */
+        public byte[] getGzipBody() {
+            byte[] compressed = gzipBody;
+            if (compressed == null) {
+                compressed = Gzip.compress(body);
+                gzipBody = compressed;
+            }
+            return compressed;
+        }
+
+        /**
+         * ETag of the gzip-encoded body, which is a different representation of the same data
+         */
+        public String getGzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Whether an If-None-Match request header names this entry's ETag
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals(etag) || candidate.equals(getGzipEtag()) || candidate.equals("*")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
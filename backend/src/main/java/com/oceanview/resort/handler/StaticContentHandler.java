@@ -0,0 +1,185 @@
+package com.oceanview.resort.handler;
+
+import com.oceanview.resort.server.Gzip;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Serves fixed content - the Swagger UI page, the OpenAPI spec and the frontend/ pages -
+ * from memory. Every asset is read once at startup and kept as ready-to-send bytes, a
+ * gzip copy and a strong ETag, so a request costs a map lookup and a socket write.
+ */
+public class StaticContentHandler implements HttpHandler {
+
+    private static final byte[] NOT_FOUND = "Not found".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, Asset> assets = new ConcurrentHashMap<>();
+
+    /**
+     * Serve a classpath resource at a path
+     */
+    public StaticContentHandler addResource(String path, String resource) throws IOException {
+        try (InputStream in = StaticContentHandler.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing resource " + resource);
+            }
+            assets.put(path, new Asset(in.readAllBytes(), contentType(resource)));
+        }
+        return this;
+    }
+
+    /**
+     * Serve every file in a directory under a path prefix, with index.html also served at the prefix
+     */
+    public StaticContentHandler addDirectory(String prefix, Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            System.err.println("Not serving " + prefix + ": " + dir.toAbsolutePath() + " is not a directory");
+            return this;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String relative = dir.relativize(file).toString().replace('\\', '/');
+                Asset asset = new Asset(Files.readAllBytes(file), contentType(relative));
+                assets.put(prefix + relative, asset);
+                if (relative.equals("index.html")) {
+                    assets.put(prefix, asset);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Make an already loaded asset available under another path too
+     */
+    public StaticContentHandler alias(String path, String existingPath) {
+        Asset asset = assets.get(existingPath);
+        if (asset != null) {
+            assets.put(path, asset);
+        }
+        return this;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        String method = exchange.getRequestMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+
+        Asset asset = assets.get(exchange.getRequestURI().getPath());
+        if (asset == null) {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(404, NOT_FOUND.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(NOT_FOUND);
+            }
+            return;
+        }
+
+        boolean gzip = asset.gzipBody != null && Gzip.isAccepted(exchange);
+        exchange.getResponseHeaders().set("Content-Type", asset.contentType);
+        exchange.getResponseHeaders().set("ETag", gzip ? asset.gzipEtag : asset.etag);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null && (ifNoneMatch.contains(asset.etag) || ifNoneMatch.contains(asset.gzipEtag))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] body = gzip ? asset.gzipBody : asset.body;
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        if ("HEAD".equals(method)) {
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(body.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private static String contentType(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        String extension = lower.substring(lower.lastIndexOf('.') + 1);
+        switch (extension) {
+            case "html":
+                return "text/html; charset=utf-8";
+            case "css":
+                return "text/css; charset=utf-8";
+            case "js":
+                return "text/javascript; charset=utf-8";
+            case "json":
+                return "application/json";
+            case "svg":
+                return "image/svg+xml";
+            case "png":
+                return "image/png";
+            case "jpg":
+            case "jpeg":
+                return "image/jpeg";
+            case "ico":
+                return "image/x-icon";
+            case "txt":
+                return "text/plain; charset=utf-8";
+            default:
+                return "application/octet-stream";
+        }
+    }
+
+    /**
+     * One preloaded response: identity and gzip bodies with their ETags
+     */
+    private static class Asset {
+        final byte[] body;
+        final byte[] gzipBody; // null when compression would not pay off
+        final String contentType;
+        final String etag;
+        final String gzipEtag;
+
+        Asset(byte[] body, String contentType) {
+            this.body = body;
+            this.contentType = contentType;
+            String hash = hash(body);
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gz\"";
+            boolean compressible = contentType.startsWith("text/") || contentType.contains("json")
+                    || contentType.contains("svg");
+            byte[] compressed = compressible && body.length >= Gzip.MIN_BYTES ? Gzip.compress(body) : null;
+            this.gzipBody = compressed != null && compressed.length < body.length ? compressed : null;
+        }
+
+        private static String hash(byte[] body) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.oceanview.resort.handler;
 import com.google.gson.Gson;
 import com.oceanview.resort.model.User;
 import com.oceanview.resort.repository.UserRepository;
+import com.oceanview.resort.util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
@@ -12,7 +13,7 @@ import java.util.List;
 
 public class UserHandler implements HttpHandler {
     private final UserRepository userRepository;
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonUtil.getGson();
 
     public UserHandler(UserRepository userRepository) {
         this.userRepository = userRepository;
@@ -23,19 +24,14 @@ public class UserHandler implements HttpHandler {
         // Add CORS headers
         exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
         exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, DELETE, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, X-Role");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
 
         if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) {
             exchange.sendResponseHeaders(204, -1);
             return;
         }
 
-        // Simple role-based security check via header
-        String role = exchange.getRequestHeaders().getFirst("X-Role");
-        if (!"ADMIN".equalsIgnoreCase(role)) {
-            sendResponse(exchange, 403, "{\"message\": \"Access denied. Admin only.\"}");
-            return;
-        }
+        // Admin-only access is enforced by the AuthFilter on this context
 
         switch (exchange.getRequestMethod().toUpperCase()) {
             case "GET":
@@ -80,16 +76,7 @@ public class UserHandler implements HttpHandler {
                 sendResponse(exchange, 400, "{\"message\": \"Cannot delete default admin\"}");
                 return;
             }
-            List<User> users = userRepository.findAll();
-            boolean removed = users.removeIf(u -> u.getUsername().equals(username));
-            if (removed) {
-                // Actually save the updated list
-                // Need a way to save full list in repository
-                // I'll update UserRepository to have a delete method
-                userRepository.findAll(); // Refresh
-                // For simplicity, I'll just save it by adding a delete method to repo later if
-                // needed
-                // But let's just use the repo's internal mechanism if I update it
+            if (userRepository.delete(username)) {
                 sendResponse(exchange, 200, "{\"message\": \"User deleted\"}");
             } else {
                 sendResponse(exchange, 404, "{\"message\": \"User not found\"}");
@@ -0,0 +1,33 @@
+package com.oceanview.resort.metrics;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+/**
+ * Records count, status, in-flight and latency for every request on a context
+ */
+public class MetricsFilter extends Filter {
+
+    private final RouteMetrics metrics;
+
+    public MetricsFilter(String route) {
+        this.metrics = MetricsRegistry.global().route(route);
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long start = metrics.start();
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            metrics.finish(start, exchange.getResponseCode());
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Records request metrics for " + metrics.getRoute();
+    }
+}
@@ -0,0 +1,91 @@
+package com.oceanview.resort.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Process-wide registry of route and operation metrics, rendered in Prometheus text format.
+ * Callers look up their RouteMetrics or LatencyHistogram once and keep it, so recording
+ * on the request path is a few atomic increments with no allocation.
+ */
+public class MetricsRegistry {
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private final Map<String, RouteMetrics> routes = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> operations = new ConcurrentSkipListMap<>();
+
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Metrics for an HTTP route, created on first use
+     */
+    public RouteMetrics route(String route) {
+        return routes.computeIfAbsent(route, RouteMetrics::new);
+    }
+
+    /**
+     * Latency histogram for a named internal operation such as a repository write
+     */
+    public LatencyHistogram operation(String name) {
+        return operations.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    /**
+     * Render every metric in Prometheus text exposition format
+     */
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder(4096);
+
+        out.append("# HELP resort_http_requests_total HTTP requests by route and status code.\n");
+        out.append("# TYPE resort_http_requests_total counter\n");
+        for (RouteMetrics metrics : routes.values()) {
+            for (int status = 0; status < RouteMetrics.maxStatus(); status++) {
+                long count = metrics.getStatusCount(status);
+                if (count > 0) {
+                    out.append("resort_http_requests_total{route=\"").append(metrics.getRoute())
+                            .append("\",status=\"").append(status).append("\"} ").append(count).append('\n');
+                }
+            }
+        }
+
+        out.append("# HELP resort_http_requests_in_flight HTTP requests currently being handled.\n");
+        out.append("# TYPE resort_http_requests_in_flight gauge\n");
+        for (RouteMetrics metrics : routes.values()) {
+            out.append("resort_http_requests_in_flight{route=\"").append(metrics.getRoute()).append("\"} ")
+                    .append(metrics.getInFlight()).append('\n');
+        }
+
+        out.append("# HELP resort_http_request_duration_seconds HTTP request latency by route.\n");
+        out.append("# TYPE resort_http_request_duration_seconds summary\n");
+        for (RouteMetrics metrics : routes.values()) {
+            appendSummary(out, "resort_http_request_duration_seconds",
+                    "route=\"" + metrics.getRoute() + "\"", metrics.getLatency());
+        }
+
+        out.append("# HELP resort_operation_duration_seconds Latency of internal operations.\n");
+        out.append("# TYPE resort_operation_duration_seconds summary\n");
+        for (Map.Entry<String, LatencyHistogram> entry : operations.entrySet()) {
+            appendSummary(out, "resort_operation_duration_seconds",
+                    "operation=\"" + entry.getKey() + "\"", entry.getValue());
+        }
+        return out.toString();
+    }
+
+    private static void appendSummary(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        for (double quantile : QUANTILES) {
+            out.append(name).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.valueAtQuantile(quantile))).append('\n');
+        }
+        out.append(name).append("_sum{").append(labels).append("} ").append(seconds(histogram.getSum())).append('\n');
+        out.append(name).append("_count{").append(labels).append("} ").append(histogram.getCount()).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
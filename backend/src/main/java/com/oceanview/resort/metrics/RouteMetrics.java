@@ -0,0 +1,59 @@
+package com.oceanview.resort.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Request counters, status codes, in-flight count and latency for one HTTP route
+ */
+public class RouteMetrics {
+
+    private static final int MAX_STATUS = 600;
+
+    private final String route;
+    private final AtomicLongArray statusCounts = new AtomicLongArray(MAX_STATUS);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    RouteMetrics(String route) {
+        this.route = route;
+    }
+
+    /**
+     * Mark a request as started and return its start time
+     */
+    public long start() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Mark a request started at {@code startNanos} as finished with the given status code
+     */
+    public void finish(long startNanos, int status) {
+        latency.recordSince(startNanos);
+        inFlight.decrementAndGet();
+        // Status 0 stands for requests that ended without a response, e.g. a dropped connection
+        statusCounts.incrementAndGet(status > 0 && status < MAX_STATUS ? status : 0);
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getStatusCount(int status) {
+        return statusCounts.get(status);
+    }
+
+    static int maxStatus() {
+        return MAX_STATUS;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+}
@@ -16,29 +16,34 @@ public class Reservation {
     private LocalDate checkInDate;
     private LocalDate checkOutDate;
     private Double totalBill;
+    private Long version;
 
-    // Enums
+    // Enums; nightly rates are held in cents so bills add up exactly
     public enum RoomType {
-        STANDARD(15000.0), DELUXE(25000.0), SUITE(45000.0);
+        STANDARD(1_500_000), DELUXE(2_500_000), SUITE(4_500_000);
 
-        public final Double rate;
+        public final long rateCents;
+        public final double rate;
 
-        RoomType(Double rate) {
-            this.rate = rate;
+        RoomType(long rateCents) {
+            this.rateCents = rateCents;
+            this.rate = rateCents / 100.0;
         }
     }
 
     public enum BoardType {
-        BB("Bed & Breakfast", 0.0),
-        HB("Half Board", 5000.0),
-        FB("Full Board", 10000.0);
+        BB("Bed & Breakfast", 0),
+        HB("Half Board", 500_000),
+        FB("Full Board", 1_000_000);
 
         public final String name;
-        public final Double rate;
+        public final long rateCents;
+        public final double rate;
 
-        BoardType(String name, Double rate) {
+        BoardType(String name, long rateCents) {
             this.name = name;
-            this.rate = rate;
+            this.rateCents = rateCents;
+            this.rate = rateCents / 100.0;
         }
     }
 
@@ -122,4 +127,15 @@ public class Reservation {
     public void setTotalBill(Double totalBill) {
         this.totalBill = totalBill;
     }
+
+    /**
+     * Edit counter: 1 when created, one more on every change; null on records stored before versioning
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
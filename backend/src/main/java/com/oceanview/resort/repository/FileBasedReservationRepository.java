@@ -1,7 +1,12 @@
 package com.oceanview.resort.repository;
 
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
+import com.oceanview.resort.metrics.LatencyHistogram;
+import com.oceanview.resort.metrics.MetricsRegistry;
 import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.util.ConfigUtil;
+import com.oceanview.resort.util.FileUtil;
 import com.oceanview.resort.util.JsonUtil;
 
 import java.io.IOException;
@@ -9,39 +14,139 @@ import java.lang.reflect.Type;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
- * File-based repository for Reservation persistence using JSON
+ * File-based repository for Reservation persistence.
+ * Reservations are held in memory. Every create/update/delete is appended to a write-ahead
+ * log, and the log is periodically compacted into the JSON snapshot. On startup the
+ * snapshot is loaded and the log replayed on top of it.
+ * Lookups by reference ID, phone and stay dates go through in-memory indexes.
  */
-public class FileBasedReservationRepository {
+public class FileBasedReservationRepository implements ReservationRepository {
+
+    private static final String DATA_DIR = "data";
+    private static final String SNAPSHOT_FILE = "reservations.json";
+    private static final String LOG_FILE = "reservations.log";
 
-    private static final String DATA_FILE = "data/reservations.json";
     private final Path dataPath;
+    private final Path snapshotPath;
     private final AtomicLong idCounter;
+    private final AtomicLong version = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, Reservation> reservations;
+    private final ReservationIndex index;
+    private final WriteAheadLog log;
+    private final int compactThreshold;
+    private final ReadWriteLock compactionLock;
+    private final AtomicBoolean compactionPending;
+    private final ExecutorService compactor;
+    private final LatencyHistogram saveTimer = MetricsRegistry.global().operation("reservation_repository_save");
+    private final LatencyHistogram readTimer = MetricsRegistry.global().operation("reservation_repository_read");
+    private final LatencyHistogram compactTimer = MetricsRegistry.global().operation("reservation_repository_compact");
 
     public FileBasedReservationRepository() {
-        this.dataPath = Paths.get(DATA_FILE);
+        this(Paths.get(DATA_DIR));
+    }
+
+    public FileBasedReservationRepository(Path dataDir) {
+        this.dataPath = dataDir;
+        this.snapshotPath = dataDir.resolve(SNAPSHOT_FILE);
         this.idCounter = new AtomicLong(0);
-        initializeDataFile();
+        this.reservations = new ConcurrentSkipListMap<>();
+        this.index = new ReservationIndex();
+        this.compactThreshold = ConfigUtil.getInt("resort.wal.compactEvery", 1000);
+        this.compactionLock = new ReentrantReadWriteLock();
+        this.compactionPending = new AtomicBoolean(false);
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "wal-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            initializeDataFile();
+            loadSnapshot();
+            this.log = new WriteAheadLog(dataDir.resolve(LOG_FILE),
+                    WriteAheadLog.FsyncPolicy.valueOf(ConfigUtil.get("resort.wal.fsync", "ALWAYS").toUpperCase()),
+                    ConfigUtil.getLong("resort.wal.fsyncIntervalMs", 50),
+                    ConfigUtil.getLong("resort.wal.batchMs", 0),
+                    ConfigUtil.getInt("resort.wal.maxBatch", 512));
+            log.replay(this::applyLogEntry);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load reservations", e);
+        }
     }
 
     /**
      * Initialize data file if it doesn't exist
      */
-    private void initializeDataFile() {
+    private void initializeDataFile() throws IOException {
+        if (!Files.exists(dataPath)) {
+            Files.createDirectories(dataPath);
+        }
+        if (!Files.exists(snapshotPath)) {
+            Files.writeString(snapshotPath, "[]");
+        }
+    }
+
+    /**
+     * Load the compacted snapshot into memory
+     */
+    private void loadSnapshot() throws IOException {
+        String json = Files.readString(snapshotPath);
+        Type listType = new TypeToken<ArrayList<Reservation>>() {
+        }.getType();
+        List<Reservation> stored = JsonUtil.getGson().fromJson(json, listType);
+        if (stored == null) {
+            return;
+        }
+        List<Reservation> unassigned = new ArrayList<>();
+        for (Reservation reservation : stored) {
+            // Older snapshots could contain the same id twice; give the later copy a fresh id
+            if (reservation.getId() == null || reservations.containsKey(reservation.getId())) {
+                unassigned.add(reservation);
+            } else {
+                store(reservation);
+                idCounter.accumulateAndGet(reservation.getId(), Math::max);
+            }
+        }
+        for (Reservation reservation : unassigned) {
+            reservation.setId(idCounter.incrementAndGet());
+            store(reservation);
+        }
+    }
+
+    /**
+     * Apply one replayed log record on top of the snapshot
+     */
+    private void applyLogEntry(String line) {
         try {
-            if (!Files.exists(dataPath.getParent())) {
-                Files.createDirectories(dataPath.getParent());
+            LogEntry entry = JsonUtil.fromJson(line, LogEntry.class);
+            if (entry == null || entry.reservation == null || entry.reservation.getId() == null) {
+                return;
             }
-            if (!Files.exists(dataPath)) {
-                Files.writeString(dataPath, "[]");
+            if (LogEntry.DELETE.equals(entry.op)) {
+                unstore(entry.reservation.getId());
+                return;
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to initialize data file", e);
+            store(entry.reservation);
+            idCounter.accumulateAndGet(entry.reservation.getId(), Math::max);
+        } catch (JsonParseException e) {
+            // Torn writes are cut off by the log's checksums; this is a record that no longer parses
+            System.err.println("Skipping unreadable reservation log record: " + e.getMessage());
         }
     }
 
@@ -49,62 +154,219 @@ public class FileBasedReservationRepository {
      * Find all reservations
      */
     public List<Reservation> findAll() {
+        long start = System.nanoTime();
         try {
-            String json = Files.readString(dataPath);
-            Type listType = new TypeToken<ArrayList<Reservation>>() {
-            }.getType();
-            List<Reservation> reservations = JsonUtil.getGson().fromJson(json, listType);
-            return reservations != null ? reservations : new ArrayList<>();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read reservations", e);
+            return new ArrayList<>(reservations.values());
+        } finally {
+            readTimer.recordSince(start);
         }
     }
 
     /**
-     * Save a reservation (create or update)
+     * Save a reservation (create or update).
+     * Concurrent saves are committed to the log together, one write per batch.
      */
-    public synchronized Reservation save(Reservation reservation) {
+    public Reservation save(Reservation reservation) {
+        long start = System.nanoTime();
+        compactionLock.readLock().lock();
         try {
-            List<Reservation> reservations = findAll();
-
-            // Update existing or add new
-            if (reservation.getId() != null) {
-                // Update existing
-                reservations.removeIf(r -> r.getId().equals(reservation.getId()));
-            } else {
+            if (reservation.getId() == null) {
                 // Assign new ID
                 reservation.setId(idCounter.incrementAndGet());
             }
 
-            reservations.add(reservation);
+            log.append(JsonUtil.toCompactJson(new LogEntry(LogEntry.PUT, reservation)));
+            store(reservation);
+            version.incrementAndGet();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save reservation", e);
+        } finally {
+            compactionLock.readLock().unlock();
+            saveTimer.recordSince(start);
+        }
 
-            // Write back to file
-            String json = JsonUtil.toJson(reservations);
-            Files.writeString(dataPath, json);
+        compactIfDue();
+        return reservation;
+    }
 
-            return reservation;
+    /**
+     * Save several reservations with a single log write
+     */
+    public List<Reservation> saveAll(List<Reservation> batch) {
+        long start = System.nanoTime();
+        compactionLock.readLock().lock();
+        try {
+            List<String> records = new ArrayList<>(batch.size());
+            for (Reservation reservation : batch) {
+                if (reservation.getId() == null) {
+                    reservation.setId(idCounter.incrementAndGet());
+                }
+                records.add(JsonUtil.toCompactJson(new LogEntry(LogEntry.PUT, reservation)));
+            }
+            log.appendAll(records);
+            batch.forEach(this::store);
+            version.incrementAndGet();
         } catch (IOException e) {
-            throw new RuntimeException("Failed to save reservation", e);
+            throw new RuntimeException("Failed to save reservations", e);
+        } finally {
+            compactionLock.readLock().unlock();
+            saveTimer.recordSince(start);
         }
+
+        compactIfDue();
+        return batch;
+    }
+
+    /**
+     * Remove a reservation, logging a tombstone that carries only its id
+     */
+    public boolean delete(Long id) {
+        long start = System.nanoTime();
+        compactionLock.readLock().lock();
+        try {
+            if (!reservations.containsKey(id)) {
+                return false;
+            }
+            Reservation tombstone = new Reservation();
+            tombstone.setId(id);
+            log.append(JsonUtil.toCompactJson(new LogEntry(LogEntry.DELETE, tombstone)));
+            unstore(id);
+            version.incrementAndGet();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete reservation", e);
+        } finally {
+            compactionLock.readLock().unlock();
+            saveTimer.recordSince(start);
+        }
+
+        compactIfDue();
+        return true;
+    }
+
+    private void compactIfDue() {
+        if (log.size() >= compactThreshold && compactionPending.compareAndSet(false, true)) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Put a reservation into memory and keep the indexes in step
+     */
+    private void store(Reservation reservation) {
+        Reservation previous = reservations.put(reservation.getId(), reservation);
+        if (previous != null) {
+            index.remove(previous);
+        }
+        index.add(reservation);
+    }
+
+    private void unstore(Long id) {
+        Reservation previous = reservations.remove(id);
+        if (previous != null) {
+            index.remove(previous);
+        }
+    }
+
+    /**
+     * Write the in-memory state to the snapshot and empty the log
+     */
+    public void compact() {
+        long start = System.nanoTime();
+        compactionLock.writeLock().lock();
+        try {
+            FileUtil.writeAtomically(snapshotPath, JsonUtil.toJson(findAll()));
+            log.reset();
+        } catch (IOException e) {
+            System.err.println("Error compacting reservation log: " + e.getMessage());
+        } finally {
+            compactionPending.set(false);
+            compactionLock.writeLock().unlock();
+            compactTimer.recordSince(start);
+        }
+    }
+
+    /**
+     * Stream reservations in id order, starting after the given id (or from the first when null)
+     */
+    public Stream<Reservation> streamAfter(Long afterId) {
+        return (afterId == null ? reservations : reservations.tailMap(afterId, false)).values().stream();
     }
 
     /**
      * Find reservation by reference ID
      */
     public Optional<Reservation> findByReferenceId(String referenceId) {
-        return findAll().stream()
-                .filter(r -> r.getReferenceId().equals(referenceId))
-                .findFirst();
+        long start = System.nanoTime();
+        try {
+            Long id = index.idForReferenceId(referenceId);
+            return id == null ? Optional.empty() : Optional.ofNullable(reservations.get(id));
+        } finally {
+            readTimer.recordSince(start);
+        }
+    }
+
+    /**
+     * Find reservations booked under a guest phone number
+     */
+    public List<Reservation> findByPhone(String phone) {
+        return index.idsForPhone(phone).stream()
+                .map(reservations::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Find reservations with at least one night in [from, to)
+     */
+    public List<Reservation> findByStayOverlapping(LocalDate from, LocalDate to) {
+        return index.idsForStayCandidates(from, to)
+                .map(reservations::get)
+                .filter(r -> r != null && r.getCheckOutDate() != null && r.getCheckOutDate().isAfter(from))
+                .collect(Collectors.toList());
     }
 
     /**
      * Find maximum reference ID for auto-increment
      */
     public String findMaxReferenceId() {
-        return findAll().stream()
-                .map(Reservation::getReferenceId)
-                .filter(id -> id != null && id.matches("\\d+"))
-                .max(String::compareTo)
-                .orElse(null);
+        long max = index.maxNumericReferenceId();
+        return max < 0 ? null : String.valueOf(max);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Compact the log and release the files
+     */
+    public void close() {
+        compact();
+        compactor.shutdown();
+        // Saves hold the read lock until their append is durable, so none is left waiting on a closed log
+        compactionLock.writeLock().lock();
+        try {
+            log.close();
+        } catch (IOException e) {
+            System.err.println("Error closing reservation log: " + e.getMessage());
+        } finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A single record in the write-ahead log
+     */
+    private static class LogEntry {
+        static final String PUT = "PUT";
+        static final String DELETE = "DELETE";
+
+        private String op;
+        private Reservation reservation;
+
+        LogEntry(String op, Reservation reservation) {
+            this.op = op;
+            this.reservation = reservation;
+        }
     }
 }
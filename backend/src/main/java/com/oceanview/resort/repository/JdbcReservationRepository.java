@@ -0,0 +1,324 @@
+package com.oceanview.resort.repository;
+
+import com.oceanview.resort.metrics.LatencyHistogram;
+import com.oceanview.resort.metrics.MetricsRegistry;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Reservation.BoardType;
+import com.oceanview.resort.model.Reservation.RoomType;
+import com.oceanview.resort.util.ConfigUtil;
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reservation storage in an embedded H2 database (data/resort_db by default).
+ * Connections come from a small pool, every statement is prepared, and lookups by
+ * reference ID, phone and stay dates are served by indexes instead of scanning.
+ * The table matches the RESERVATIONS schema already present in data/resort_db.mv.db.
+ */
+public class JdbcReservationRepository implements ReservationRepository {
+
+    private static final String COLUMNS = "id, reference_id, guest_name, address, phone, room_type, board_type, "
+            + "check_in_date, check_out_date, total_bill, version";
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM reservations";
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    private final JdbcConnectionPool pool;
+    private final AtomicLong idCounter;
+    private final AtomicLong longestStayNights;
+    private final AtomicLong version = new AtomicLong();
+    private final LatencyHistogram saveTimer = MetricsRegistry.global().operation("reservation_repository_save");
+    private final LatencyHistogram readTimer = MetricsRegistry.global().operation("reservation_repository_read");
+
+    public JdbcReservationRepository(Path dataDir) {
+        this(ConfigUtil.get("resort.h2.url", "jdbc:h2:file:" + dataDir.toAbsolutePath().resolve("resort_db")),
+                ConfigUtil.get("resort.h2.user", "sa"), ConfigUtil.get("resort.h2.password", ""));
+    }
+
+    public JdbcReservationRepository(String url, String user, String password) {
+        this.pool = JdbcConnectionPool.create(url, user, password);
+        pool.setMaxConnections(ConfigUtil.getInt("resort.h2.poolSize", 10));
+        try {
+            createSchema();
+            this.idCounter = new AtomicLong(queryLong("SELECT COALESCE(MAX(id), 0) FROM reservations"));
+            this.longestStayNights = new AtomicLong(queryLong(
+                    "SELECT COALESCE(MAX(DATEDIFF(DAY, check_in_date, check_out_date)), 0) FROM reservations"));
+        } catch (SQLException e) {
+            pool.dispose();
+            throw new RuntimeException("Failed to open reservation database", e);
+        }
+    }
+
+    private void createSchema() throws SQLException {
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS reservations ("
+                    + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "address VARCHAR(255), "
+                    + "check_in_date DATE, "
+                    + "check_out_date DATE, "
+                    + "guest_name VARCHAR(255), "
+                    + "phone VARCHAR(255), "
+                    + "reference_id VARCHAR(255) UNIQUE, "
+                    + "room_type VARCHAR(255), "
+                    + "total_bill DOUBLE PRECISION, "
+                    + "board_type VARCHAR(255))");
+            // The original schema has no edit counter
+            statement.execute("ALTER TABLE reservations ADD COLUMN IF NOT EXISTS version BIGINT");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_reservations_stay "
+                    + "ON reservations (check_in_date, check_out_date)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_reservations_phone ON reservations (phone)");
+        }
+    }
+
+    @Override
+    public List<Reservation> findAll() {
+        long start = System.nanoTime();
+        try {
+            return query(SELECT + " ORDER BY id");
+        } finally {
+            readTimer.recordSince(start);
+        }
+    }
+
+    @Override
+    public Reservation save(Reservation reservation) {
+        saveAll(List.of(reservation));
+        return reservation;
+    }
+
+    /**
+     * Upsert a batch in one transaction with a single batched statement
+     */
+    @Override
+    public List<Reservation> saveAll(List<Reservation> batch) {
+        long start = System.nanoTime();
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "MERGE INTO reservations (" + COLUMNS + ") KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (Reservation r : batch) {
+                    if (r.getId() == null) {
+                        r.setId(idCounter.incrementAndGet());
+                    } else {
+                        idCounter.accumulateAndGet(r.getId(), Math::max);
+                    }
+                    bind(statement, r);
+                    statement.addBatch();
+                    if (r.getCheckInDate() != null && r.getCheckOutDate() != null) {
+                        longestStayNights.accumulateAndGet(
+                                ChronoUnit.DAYS.between(r.getCheckInDate(), r.getCheckOutDate()), Math::max);
+                    }
+                }
+                statement.executeBatch();
+                connection.commit();
+                version.incrementAndGet();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+            return batch;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save reservations", e);
+        } finally {
+            saveTimer.recordSince(start);
+        }
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        long start = System.nanoTime();
+        try (Connection connection = pool.getConnection();
+                PreparedStatement statement = connection.prepareStatement("DELETE FROM reservations WHERE id = ?")) {
+            statement.setLong(1, id);
+            boolean deleted = statement.executeUpdate() > 0;
+            if (deleted) {
+                version.incrementAndGet();
+            }
+            return deleted;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete reservation", e);
+        } finally {
+            saveTimer.recordSince(start);
+        }
+    }
+
+    /**
+     * Stream in id order, fetching one page at a time by keyset so large tables are never held at once
+     */
+    @Override
+    public Stream<Reservation> streamAfter(Long afterId) {
+        Iterator<Reservation> pages = new Iterator<>() {
+            private long lastId = afterId == null ? Long.MIN_VALUE : afterId;
+            private boolean lastPage;
+            private Iterator<Reservation> page = nextPage();
+
+            private Iterator<Reservation> nextPage() {
+                List<Reservation> rows = query(SELECT + " WHERE id > ? ORDER BY id LIMIT " + STREAM_PAGE_SIZE, lastId);
+                lastPage = rows.size() < STREAM_PAGE_SIZE;
+                return rows.iterator();
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (!page.hasNext() && !lastPage) {
+                    page = nextPage();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public Reservation next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Reservation r = page.next();
+                lastId = r.getId();
+                return r;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public Optional<Reservation> findByReferenceId(String referenceId) {
+        long start = System.nanoTime();
+        try {
+            return query(SELECT + " WHERE reference_id = ?", referenceId).stream().findFirst();
+        } finally {
+            readTimer.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Reservation> findByPhone(String phone) {
+        return query(SELECT + " WHERE phone = ? ORDER BY id", phone.trim());
+    }
+
+    /**
+     * Only check-ins within the longest known stay before {@code from} can reach into the range,
+     * which bounds the index scan on check_in_date from both sides
+     */
+    @Override
+    public List<Reservation> findByStayOverlapping(LocalDate from, LocalDate to) {
+        return query(SELECT + " WHERE check_in_date >= ? AND check_in_date < ? AND check_out_date > ? ORDER BY id",
+                from.minusDays(longestStayNights.get()), to, from);
+    }
+
+    @Override
+    public String findMaxReferenceId() {
+        try {
+            long max = queryLong("SELECT COALESCE(MAX(CAST(reference_id AS BIGINT)), -1) FROM reservations "
+                    + "WHERE REGEXP_LIKE(reference_id, '^[0-9]{1,18}$')");
+            return max < 0 ? null : String.valueOf(max);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read reference IDs", e);
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public void close() {
+        pool.dispose();
+    }
+
+    private List<Reservation> query(String sql, Object... parameters) {
+        try (Connection connection = pool.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            List<Reservation> result = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    result.add(read(rows));
+                }
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to query reservations", e);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Connection connection = pool.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql);
+                ResultSet rows = statement.executeQuery()) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Reservation r) throws SQLException {
+        statement.setLong(1, r.getId());
+        statement.setString(2, r.getReferenceId());
+        statement.setString(3, r.getGuestName());
+        statement.setString(4, r.getAddress());
+        statement.setString(5, r.getPhone());
+        statement.setString(6, r.getRoomType() == null ? null : r.getRoomType().name());
+        statement.setString(7, r.getBoardType() == null ? null : r.getBoardType().name());
+        statement.setObject(8, r.getCheckInDate(), Types.DATE);
+        statement.setObject(9, r.getCheckOutDate(), Types.DATE);
+        if (r.getTotalBill() == null) {
+            statement.setNull(10, Types.DOUBLE);
+        } else {
+            statement.setDouble(10, r.getTotalBill());
+        }
+        if (r.getVersion() == null) {
+            statement.setNull(11, Types.BIGINT);
+        } else {
+            statement.setLong(11, r.getVersion());
+        }
+    }
+
+    private static Reservation read(ResultSet rows) throws SQLException {
+        Reservation r = new Reservation();
+        r.setId(rows.getLong("id"));
+        r.setReferenceId(rows.getString("reference_id"));
+        r.setGuestName(rows.getString("guest_name"));
+        r.setAddress(rows.getString("address"));
+        r.setPhone(rows.getString("phone"));
+        r.setRoomType(parseEnum(RoomType.class, rows.getString("room_type")));
+        r.setBoardType(parseEnum(BoardType.class, rows.getString("board_type")));
+        r.setCheckInDate(rows.getObject("check_in_date", LocalDate.class));
+        r.setCheckOutDate(rows.getObject("check_out_date", LocalDate.class));
+        double bill = rows.getDouble("total_bill");
+        r.setTotalBill(rows.wasNull() ? null : bill);
+        long recordVersion = rows.getLong("version");
+        r.setVersion(rows.wasNull() ? null : recordVersion);
+        return r;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.oceanview.resort.repository;
+
+import com.oceanview.resort.metrics.LatencyHistogram;
+import com.oceanview.resort.metrics.MetricsRegistry;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Reservation.BoardType;
+import com.oceanview.resort.model.Reservation.RoomType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reservation storage in a compact binary format, read through memory maps.
+ * reservations.dat holds a header and fixed-width records: id, numeric reference ID,
+ * room and board ordinals, epoch-day dates and the bill. reservations.heap holds the text
+ * fields, each distinct string stored once. Records are decoded only when asked for,
+ * and date-range scans compare the stored epoch days before decoding anything.
+ * An update appends a new record and then retires the old one, so a crash mid-write
+ * never damages a record that was already there; on load the later copy wins.
+ */
+public class MappedReservationRepository implements ReservationRepository {
+
+    static final String DATA_FILE = "reservations.dat";
+    static final String HEAP_FILE = "reservations.heap";
+
+    private static final int MAGIC = 0x4F565253; // "OVRS"
+    private static final int FORMAT_VERSION = 1;
+
+    // Header: magic, format version, record count, heap bytes used
+    private static final int HEADER_BYTES = 16;
+    private static final int COUNT_AT = 8;
+    private static final int HEAP_USED_AT = 12;
+
+    // Record layout
+    private static final int RECORD_BYTES = 56;
+    private static final int ID = 0;
+    private static final int REFERENCE_NUMBER = 8;
+    private static final int REFERENCE_TEXT = 16;
+    private static final int GUEST_NAME = 20;
+    private static final int ADDRESS = 24;
+    private static final int PHONE = 28;
+    private static final int ROOM_TYPE = 32;
+    private static final int BOARD_TYPE = 33;
+    private static final int FLAGS = 34;
+    private static final int CHECK_IN = 36;
+    private static final int CHECK_OUT = 40;
+    private static final int VERSION = 44; // 0 for records saved before versioning
+    private static final int TOTAL_BILL = 48;
+
+    private static final short LIVE = 1;
+    private static final short HAS_BILL = 2;
+    private static final int NO_STRING = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final long NO_REFERENCE_NUMBER = Long.MIN_VALUE;
+
+    private static final int INITIAL_DATA_BYTES = HEADER_BYTES + 1024 * RECORD_BYTES;
+    private static final int INITIAL_HEAP_BYTES = 64 * 1024;
+
+    private static final RoomType[] ROOM_TYPES = RoomType.values();
+    private static final BoardType[] BOARD_TYPES = BoardType.values();
+
+    private final FileChannel dataChannel;
+    private final FileChannel heapChannel;
+    private MappedByteBuffer data;
+    private MappedByteBuffer heap;
+    private int recordCount;
+    private int heapUsed;
+    private long maxId;
+    private volatile long version;
+    private final Map<String, Integer> interned = new HashMap<>();
+    private final ConcurrentSkipListMap<Long, Integer> slotsById = new ConcurrentSkipListMap<>();
+    private final ReservationIndex index = new ReservationIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LatencyHistogram saveTimer = MetricsRegistry.global().operation("reservation_repository_save");
+    private final LatencyHistogram readTimer = MetricsRegistry.global().operation("reservation_repository_read");
+
+    public MappedReservationRepository(Path dataDir) {
+        try {
+            Files.createDirectories(dataDir);
+            this.dataChannel = FileChannel.open(dataDir.resolve(DATA_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.heapChannel = FileChannel.open(dataDir.resolve(HEAP_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean created = dataChannel.size() == 0;
+            this.data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(dataChannel.size(), INITIAL_DATA_BYTES));
+            this.heap = heapChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(heapChannel.size(), INITIAL_HEAP_BYTES));
+            if (created) {
+                data.putInt(0, MAGIC);
+                data.putInt(4, FORMAT_VERSION);
+                data.putInt(COUNT_AT, 0);
+                data.putInt(HEAP_USED_AT, 0);
+                data.force();
+            }
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open binary reservation store", e);
+        }
+    }
+
+    private void load() throws IOException {
+        if (data.getInt(0) != MAGIC || data.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not a reservation store, or an unsupported format version");
+        }
+        recordCount = data.getInt(COUNT_AT);
+        heapUsed = data.getInt(HEAP_USED_AT);
+
+        int position = 0;
+        while (position < heapUsed) {
+            interned.put(readString(position), position);
+            position += 4 + heap.getInt(position);
+        }
+
+        for (int slot = 0; slot < recordCount; slot++) {
+            int base = offsetOf(slot);
+            if ((data.getShort(base + FLAGS) & LIVE) == 0) {
+                continue;
+            }
+            long id = data.getLong(base + ID);
+            Integer previous = slotsById.put(id, slot);
+            if (previous != null) {
+                index.remove(decode(previous));
+            }
+            index.add(decode(slot));
+            maxId = Math.max(maxId, id);
+        }
+    }
+
+    @Override
+    public List<Reservation> findAll() {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            List<Reservation> result = new ArrayList<>(slotsById.size());
+            for (int slot : slotsById.values()) {
+                result.add(decode(slot));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+            readTimer.recordSince(start);
+        }
+    }
+
+    @Override
+    public Reservation save(Reservation reservation) {
+        saveAll(List.of(reservation));
+        return reservation;
+    }
+
+    @Override
+    public List<Reservation> saveAll(List<Reservation> batch) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            int firstSlot = recordCount;
+            int firstHeapOffset = heapUsed;
+            try {
+                for (Reservation reservation : batch) {
+                    if (reservation.getId() == null) {
+                        reservation.setId(++maxId);
+                    } else {
+                        maxId = Math.max(maxId, reservation.getId());
+                    }
+                    write(recordCount, reservation);
+                    recordCount++;
+                }
+                // Strings and records must be on disk before the header counts them
+                heap.force();
+                data.force();
+            } catch (IOException | RuntimeException e) {
+                // Nothing was counted in the header yet, so forget the partial batch
+                recordCount = firstSlot;
+                heapUsed = firstHeapOffset;
+                interned.values().removeIf(offset -> offset >= firstHeapOffset);
+                throw e;
+            }
+            data.putInt(COUNT_AT, recordCount);
+            data.putInt(HEAP_USED_AT, heapUsed);
+            data.force();
+
+            boolean retired = false;
+            for (int i = 0; i < batch.size(); i++) {
+                Reservation reservation = batch.get(i);
+                Integer previous = slotsById.put(reservation.getId(), firstSlot + i);
+                if (previous != null) {
+                    index.remove(decode(previous));
+                    int flagsAt = offsetOf(previous) + FLAGS;
+                    data.putShort(flagsAt, (short) (data.getShort(flagsAt) & ~LIVE));
+                    retired = true;
+                }
+                index.add(reservation);
+            }
+            if (retired) {
+                data.force();
+            }
+            version++;
+            return batch;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save reservations", e);
+        } finally {
+            lock.writeLock().unlock();
+            saveTimer.recordSince(start);
+        }
+    }
+
+    /**
+     * Clear the record's live flag; the slot stays in the file until the store is rewritten
+     */
+    @Override
+    public boolean delete(Long id) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsById.remove(id);
+            if (slot == null) {
+                return false;
+            }
+            index.remove(decode(slot));
+            int flagsAt = offsetOf(slot) + FLAGS;
+            data.putShort(flagsAt, (short) (data.getShort(flagsAt) & ~LIVE));
+            data.force();
+            version++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            saveTimer.recordSince(start);
+        }
+    }
+
+    @Override
+    public Stream<Reservation> streamAfter(Long afterId) {
+        return (afterId == null ? slotsById : slotsById.tailMap(afterId, false)).values().stream()
+                .map(this::read);
+    }
+
+    @Override
+    public Optional<Reservation> findByReferenceId(String referenceId) {
+        long start = System.nanoTime();
+        try {
+            Long id = index.idForReferenceId(referenceId);
+            Integer slot = id == null ? null : slotsById.get(id);
+            return slot == null ? Optional.empty() : Optional.of(read(slot));
+        } finally {
+            readTimer.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Reservation> findByPhone(String phone) {
+        return index.idsForPhone(phone).stream()
+                .map(slotsById::get)
+                .filter(Objects::nonNull)
+                .map(this::read)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Reservation> findByStayOverlapping(LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        lock.readLock().lock();
+        try {
+            return index.idsForStayCandidates(from, to)
+                    .map(slotsById::get)
+                    .filter(slot -> slot != null && data.getInt(offsetOf(slot) + CHECK_OUT) > fromDay)
+                    .map(this::decode)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String findMaxReferenceId() {
+        long max = index.maxNumericReferenceId();
+        return max < 0 ? null : String.valueOf(max);
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            data.force();
+            heap.force();
+            dataChannel.close();
+            heapChannel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing binary reservation store: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Reservation read(int slot) {
+        lock.readLock().lock();
+        try {
+            return decode(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Reservation decode(int slot) {
+        int base = offsetOf(slot);
+        Reservation r = new Reservation();
+        r.setId(data.getLong(base + ID));
+        long referenceNumber = data.getLong(base + REFERENCE_NUMBER);
+        r.setReferenceId(referenceNumber != NO_REFERENCE_NUMBER
+                ? String.valueOf(referenceNumber)
+                : readString(data.getInt(base + REFERENCE_TEXT)));
+        r.setGuestName(readString(data.getInt(base + GUEST_NAME)));
+        r.setAddress(readString(data.getInt(base + ADDRESS)));
+        r.setPhone(readString(data.getInt(base + PHONE)));
+        byte room = data.get(base + ROOM_TYPE);
+        r.setRoomType(room < 0 ? null : ROOM_TYPES[room]);
+        byte board = data.get(base + BOARD_TYPE);
+        r.setBoardType(board < 0 ? null : BOARD_TYPES[board]);
+        r.setCheckInDate(readDate(data.getInt(base + CHECK_IN)));
+        r.setCheckOutDate(readDate(data.getInt(base + CHECK_OUT)));
+        if ((data.getShort(base + FLAGS) & HAS_BILL) != 0) {
+            r.setTotalBill(Double.longBitsToDouble(data.getLong(base + TOTAL_BILL)));
+        }
+        int recordVersion = data.getInt(base + VERSION);
+        r.setVersion(recordVersion == 0 ? null : (long) recordVersion);
+        return r;
+    }
+
+    private void write(int slot, Reservation r) throws IOException {
+        int base = offsetOf(slot);
+        if (base + RECORD_BYTES > data.capacity()) {
+            data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max((long) data.capacity() * 2, base + RECORD_BYTES));
+        }
+        String referenceId = r.getReferenceId();
+        boolean numericReference = isCanonicalNumber(referenceId);
+        data.putLong(base + ID, r.getId());
+        data.putLong(base + REFERENCE_NUMBER, numericReference ? Long.parseLong(referenceId) : NO_REFERENCE_NUMBER);
+        data.putInt(base + REFERENCE_TEXT, numericReference ? NO_STRING : intern(referenceId));
+        data.putInt(base + GUEST_NAME, intern(r.getGuestName()));
+        data.putInt(base + ADDRESS, intern(r.getAddress()));
+        data.putInt(base + PHONE, intern(r.getPhone()));
+        data.put(base + ROOM_TYPE, (byte) (r.getRoomType() == null ? -1 : r.getRoomType().ordinal()));
+        data.put(base + BOARD_TYPE, (byte) (r.getBoardType() == null ? -1 : r.getBoardType().ordinal()));
+        data.putShort(base + FLAGS, (short) (LIVE | (r.getTotalBill() != null ? HAS_BILL : 0)));
+        data.putInt(base + CHECK_IN, writeDate(r.getCheckInDate()));
+        data.putInt(base + CHECK_OUT, writeDate(r.getCheckOutDate()));
+        data.putInt(base + VERSION, r.getVersion() == null ? 0 : r.getVersion().intValue());
+        data.putLong(base + TOTAL_BILL, r.getTotalBill() == null ? 0L : Double.doubleToRawLongBits(r.getTotalBill()));
+    }
+
+    /**
+     * Heap offset of a string, appending it the first time it is seen
+     */
+    private int intern(String value) throws IOException {
+        if (value == null) {
+            return NO_STRING;
+        }
+        Integer existing = interned.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int offset = heapUsed;
+        if ((long) offset + 4 + bytes.length > heap.capacity()) {
+            heap = heapChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max((long) heap.capacity() * 2, (long) offset + 4 + bytes.length));
+        }
+        heap.putInt(offset, bytes.length);
+        heap.put(offset + 4, bytes);
+        heapUsed = offset + 4 + bytes.length;
+        interned.put(value, offset);
+        return offset;
+    }
+
+    private String readString(int offset) {
+        if (offset == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[heap.getInt(offset)];
+        heap.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int offsetOf(int slot) {
+        return HEADER_BYTES + slot * RECORD_BYTES;
+    }
+
+    private static LocalDate readDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static int writeDate(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    /**
+     * Whether a reference ID survives a round trip through a long (digits only, no leading zero)
+     */
+    private static boolean isCanonicalNumber(String value) {
+        if (value == null || value.isEmpty() || value.length() > 18
+                || (value.length() > 1 && value.charAt(0) == '0')) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
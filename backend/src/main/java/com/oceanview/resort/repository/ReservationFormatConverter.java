@@ -0,0 +1,58 @@
+package com.oceanview.resort.repository;
+
+import com.oceanview.resort.model.Reservation;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Converts the JSON reservation store (reservations.json plus its log) into the binary
+ * format read by {@link MappedReservationRepository}, or into any other repository.
+ * The JSON files are left in place.
+ *
+ * Usage: java -cp ... com.oceanview.resort.repository.ReservationFormatConverter [dataDir]
+ */
+public class ReservationFormatConverter {
+
+    public static void main(String[] args) {
+        Path dataDir = Paths.get(args.length > 0 ? args[0] : "data");
+        int count = convert(dataDir);
+        System.out.println("Converted " + count + " reservations into " + dataDir.resolve(
+                MappedReservationRepository.DATA_FILE));
+    }
+
+    /**
+     * Copy every reservation from the JSON store in a directory into a new binary store beside it
+     *
+     * @return the number of reservations converted
+     */
+    public static int convert(Path dataDir) {
+        if (Files.exists(dataDir.resolve(MappedReservationRepository.DATA_FILE))) {
+            throw new IllegalStateException("A binary reservation store already exists in " + dataDir);
+        }
+        MappedReservationRepository target = new MappedReservationRepository(dataDir);
+        try {
+            return importJson(dataDir, target);
+        } finally {
+            target.close();
+        }
+    }
+
+    /**
+     * Copy every reservation from the JSON store in a directory into another repository
+     *
+     * @return the number of reservations copied
+     */
+    public static int importJson(Path dataDir, ReservationRepository target) {
+        FileBasedReservationRepository source = new FileBasedReservationRepository(dataDir);
+        try {
+            List<Reservation> reservations = source.findAll();
+            target.saveAll(reservations);
+            return reservations.size();
+        } finally {
+            source.close();
+        }
+    }
+}
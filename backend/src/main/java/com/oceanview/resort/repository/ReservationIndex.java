@@ -0,0 +1,131 @@
+package com.oceanview.resort.repository;
+
+import com.oceanview.resort.model.Reservation;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * In-memory secondary indexes over reservations, keyed to reservation ids.
+ * Hash indexes cover reference ID and phone; a sorted index on check-in date
+ * answers stay-date range queries.
+ */
+public class ReservationIndex {
+
+    private final Map<String, Long> byReferenceId = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> byPhone = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<LocalDate, Set<Long>> byCheckIn = new ConcurrentSkipListMap<>();
+    private final AtomicLong longestStayNights = new AtomicLong(0);
+    private final AtomicLong maxNumericReferenceId = new AtomicLong(-1);
+
+    /**
+     * Index a reservation
+     */
+    public void add(Reservation reservation) {
+        Long id = reservation.getId();
+        String referenceId = reservation.getReferenceId();
+        if (referenceId != null) {
+            byReferenceId.put(referenceId, id);
+            if (isNumeric(referenceId)) {
+                maxNumericReferenceId.accumulateAndGet(Long.parseLong(referenceId), Math::max);
+            }
+        }
+        if (reservation.getPhone() != null) {
+            addTo(byPhone, reservation.getPhone().trim(), id);
+        }
+        if (reservation.getCheckInDate() != null) {
+            addTo(byCheckIn, reservation.getCheckInDate(), id);
+            if (reservation.getCheckOutDate() != null) {
+                long nights = ChronoUnit.DAYS.between(reservation.getCheckInDate(), reservation.getCheckOutDate());
+                longestStayNights.accumulateAndGet(nights, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Remove a reservation from the indexes
+     */
+    public void remove(Reservation reservation) {
+        Long id = reservation.getId();
+        if (reservation.getReferenceId() != null) {
+            byReferenceId.remove(reservation.getReferenceId(), id);
+        }
+        if (reservation.getPhone() != null) {
+            removeFrom(byPhone, reservation.getPhone().trim(), id);
+        }
+        if (reservation.getCheckInDate() != null) {
+            removeFrom(byCheckIn, reservation.getCheckInDate(), id);
+        }
+    }
+
+    /**
+     * Reservation id for a reference ID, or null
+     */
+    public Long idForReferenceId(String referenceId) {
+        return byReferenceId.get(referenceId);
+    }
+
+    /**
+     * Reservation ids booked under a phone number
+     */
+    public Set<Long> idsForPhone(String phone) {
+        return byPhone.getOrDefault(phone.trim(), Collections.emptySet());
+    }
+
+    /**
+     * Candidate reservation ids whose stay may overlap [from, to).
+     * Only check-ins within the longest known stay before {@code from} can reach into
+     * the range, so callers must still check the actual dates of each candidate.
+     */
+    public Stream<Long> idsForStayCandidates(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            return Stream.empty();
+        }
+        LocalDate earliestCheckIn = from.minusDays(longestStayNights.get());
+        NavigableMap<LocalDate, Set<Long>> range = byCheckIn.subMap(earliestCheckIn, true, to, false);
+        return range.values().stream().flatMap(Set::stream);
+    }
+
+    /**
+     * Highest numeric reference ID ever indexed, or -1 when there is none
+     */
+    public long maxNumericReferenceId() {
+        return maxNumericReferenceId.get();
+    }
+
+    private static <K> void addTo(Map<K, Set<Long>> index, K key, Long id) {
+        index.compute(key, (k, ids) -> {
+            Set<Long> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            result.add(id);
+            return result;
+        });
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Long>> index, K key, Long id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static boolean isNumeric(String value) {
+        if (value.isEmpty() || value.length() > 18) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
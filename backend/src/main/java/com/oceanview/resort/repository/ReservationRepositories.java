@@ -0,0 +1,40 @@
+package com.oceanview.resort.repository;
+
+import com.oceanview.resort.util.ConfigUtil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Opens the reservation store selected by resort.storage.backend:
+ * - "json": in-memory reservations with a JSON snapshot and write-ahead log (default)
+ * - "binary": fixed-width records read through memory maps
+ * - "h2": an embedded H2 database (resort.h2.url, resort.h2.user, resort.h2.password)
+ * The binary and h2 stores import the existing JSON store the first time they start empty.
+ */
+public class ReservationRepositories {
+
+    public static ReservationRepository open(Path dataDir) {
+        String backend = ConfigUtil.get("resort.storage.backend", "json").toLowerCase();
+        switch (backend) {
+            case "json":
+                return new FileBasedReservationRepository(dataDir);
+            case "binary":
+                if (!Files.exists(dataDir.resolve(MappedReservationRepository.DATA_FILE))) {
+                    System.out.println("Converted " + ReservationFormatConverter.convert(dataDir)
+                            + " reservations to the binary store");
+                }
+                return new MappedReservationRepository(dataDir);
+            case "h2":
+                JdbcReservationRepository database = new JdbcReservationRepository(dataDir);
+                boolean empty = database.streamAfter(null).findAny().isEmpty();
+                if (empty && Files.exists(dataDir.resolve("reservations.json"))) {
+                    System.out.println("Imported " + ReservationFormatConverter.importJson(dataDir, database)
+                            + " reservations into the database");
+                }
+                return database;
+            default:
+                throw new IllegalArgumentException("Unknown resort.storage.backend: " + backend);
+        }
+    }
+}
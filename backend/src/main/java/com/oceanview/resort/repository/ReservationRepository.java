@@ -0,0 +1,72 @@
+package com.oceanview.resort.repository;
+
+import com.oceanview.resort.model.Reservation;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage for reservations. Implementations are selected at startup by
+ * {@link ReservationRepositories#open}.
+ */
+public interface ReservationRepository {
+
+    /**
+     * Find all reservations, in id order
+     */
+    List<Reservation> findAll();
+
+    /**
+     * Save a reservation (create or update); a new one is given the next id
+     */
+    Reservation save(Reservation reservation);
+
+    /**
+     * Save several reservations in one write
+     */
+    List<Reservation> saveAll(List<Reservation> batch);
+
+    /**
+     * Remove a reservation
+     *
+     * @return false when there was no reservation with that id
+     */
+    boolean delete(Long id);
+
+    /**
+     * Stream reservations in id order, starting after the given id (or from the first when null)
+     */
+    Stream<Reservation> streamAfter(Long afterId);
+
+    /**
+     * Find reservation by reference ID
+     */
+    Optional<Reservation> findByReferenceId(String referenceId);
+
+    /**
+     * Find reservations booked under a guest phone number
+     */
+    List<Reservation> findByPhone(String phone);
+
+    /**
+     * Find reservations with at least one night in [from, to)
+     */
+    List<Reservation> findByStayOverlapping(LocalDate from, LocalDate to);
+
+    /**
+     * Highest numeric reference ID stored, or null when there is none
+     */
+    String findMaxReferenceId();
+
+    /**
+     * A counter that moves forward on every save or delete, so callers can tell when stored data has changed
+     */
+    long getVersion();
+
+    /**
+     * Flush and release the underlying storage
+     */
+    void close();
+}
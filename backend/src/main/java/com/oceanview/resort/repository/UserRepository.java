@@ -1,19 +1,51 @@
 package com.oceanview.resort.repository;
 
+import com.oceanview.resort.auth.PasswordHasher;
 import com.oceanview.resort.model.User;
+import com.oceanview.resort.util.ConfigUtil;
+import com.oceanview.resort.util.FileUtil;
+
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * File-backed user store with an in-memory cache indexed by username.
+ * users.txt is read once at startup and again only when it changes: after our own
+ * writes, or when a WatchService sees it edited on disk (resort.users.watch).
+ * Passwords are stored as PBKDF2 hashes; plaintext lines from older files are hashed
+ * and written back the first time they are loaded.
+ */
 public class UserRepository {
     private static final String FILE_PATH = "../users.txt";
 
-    public List<User> findAll() {
-        List<User> users = new ArrayList<>();
+    private final Path path;
+    private final PasswordHasher hasher;
+    private volatile Map<String, User> users;
+
+    public UserRepository() {
+        this(Paths.get(FILE_PATH));
+    }
+
+    public UserRepository(Path path) {
+        this(path, new PasswordHasher());
+    }
+
+    public UserRepository(Path path, PasswordHasher hasher) {
+        this.path = path;
+        this.hasher = hasher;
+        this.users = loadAndMigrate();
+        if (ConfigUtil.getBoolean("resort.users.watch", true)) {
+            startWatcher();
+        }
+    }
+
+    private Map<String, User> load() {
+        Map<String, User> loaded = new ConcurrentHashMap<>();
         try {
-            Path path = Paths.get(FILE_PATH);
             if (!Files.exists(path))
-                return users;
+                return loaded;
 
             List<String> lines = Files.readAllLines(path);
             for (String line : lines) {
@@ -21,36 +53,126 @@ public class UserRepository {
                     continue;
                 String[] parts = line.split(",");
                 if (parts.length == 3) {
-                    users.add(new User(parts[0], parts[1], parts[2]));
+                    loaded.put(parts[0], new User(parts[0], parts[1], parts[2]));
                 }
             }
         } catch (IOException e) {
             System.err.println("Error reading users: " + e.getMessage());
         }
-        return users;
+        return loaded;
+    }
+
+    /**
+     * Load users.txt, hashing and rewriting any plaintext passwords it still holds
+     */
+    private Map<String, User> loadAndMigrate() {
+        Map<String, User> loaded = load();
+        boolean migrated = false;
+        for (User user : loaded.values()) {
+            if (!PasswordHasher.isHashed(user.getPassword())) {
+                user.setPassword(hasher.hash(user.getPassword()));
+                migrated = true;
+            }
+        }
+        if (migrated) {
+            users = loaded;
+            saveAll();
+        }
+        return loaded;
+    }
+
+    /**
+     * Reload the cache when users.txt is changed by something other than this repository
+     */
+    private void startWatcher() {
+        Path dir = path.toAbsolutePath().getParent();
+        Path fileName = path.getFileName();
+        try {
+            WatchService watcher = dir.getFileSystem().newWatchService();
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            Thread thread = new Thread(() -> {
+                try {
+                    while (true) {
+                        WatchKey key = watcher.take();
+                        boolean changed = key.pollEvents().stream()
+                                .anyMatch(event -> fileName.equals(event.context()));
+                        if (changed) {
+                            reload();
+                        }
+                        key.reset();
+                    }
+                } catch (InterruptedException | ClosedWatchServiceException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "users-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        } catch (IOException e) {
+            System.err.println("Not watching users file for changes: " + e.getMessage());
+        }
+    }
+
+    private synchronized void reload() {
+        users = loadAndMigrate();
+    }
+
+    public List<User> findAll() {
+        List<User> result = new ArrayList<>();
+        for (User user : users.values()) {
+            result.add(copyOf(user));
+        }
+        result.sort(Comparator.comparing(User::getUsername));
+        return result;
     }
 
     public Optional<User> findByUsername(String username) {
-        return findAll().stream()
-                .filter(u -> u.getUsername().equals(username))
-                .findFirst();
+        User user = username == null ? null : users.get(username);
+        return Optional.ofNullable(user).map(UserRepository::copyOf);
     }
 
-    public void save(User user) {
-        List<User> users = findAll();
-        users.removeIf(u -> u.getUsername().equals(user.getUsername()));
-        users.add(user);
-        saveAll(users);
+    /**
+     * Add or replace a user; a plaintext password is hashed before it is stored
+     */
+    public synchronized void save(User user) {
+        User stored = copyOf(user);
+        if (!PasswordHasher.isHashed(stored.getPassword())) {
+            stored.setPassword(hasher.hash(stored.getPassword()));
+        }
+        users.put(stored.getUsername(), stored);
+        saveAll();
     }
 
-    private void saveAll(List<User> users) {
-        try (PrintWriter out = new PrintWriter(new FileWriter(FILE_PATH))) {
-            for (User user : users) {
-                out.println(String.format("%s,%s,%s",
-                        user.getUsername(), user.getPassword(), user.getRole()));
-            }
+    /**
+     * Remove a user
+     *
+     * @return false when there was no such user
+     */
+    public synchronized boolean delete(String username) {
+        if (users.remove(username) == null) {
+            return false;
+        }
+        saveAll();
+        return true;
+    }
+
+    /**
+     * Rewrite users.txt through a temp file and rename, so a crash never leaves it half written
+     */
+    private void saveAll() {
+        StringBuilder out = new StringBuilder();
+        for (User user : findAll()) {
+            out.append(String.format("%s,%s,%s",
+                    user.getUsername(), user.getPassword(), user.getRole())).append(System.lineSeparator());
+        }
+        try {
+            FileUtil.writeAtomically(path, out.toString());
         } catch (IOException e) {
             System.err.println("Error saving users: " + e.getMessage());
         }
     }
+
+    // Callers such as UserHandler mask passwords on the objects they get, so never hand out cached ones
+    private static User copyOf(User user) {
+        return new User(user.getUsername(), user.getPassword(), user.getRole());
+    }
 }
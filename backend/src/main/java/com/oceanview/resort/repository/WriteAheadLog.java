@@ -0,0 +1,392 @@
+package com.oceanview.resort.repository;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of records, each framed as a 4-byte length, a 4-byte CRC32C and the UTF-8 text.
+ * Each append costs one small write regardless of how many records came before it.
+ * Appends are group-committed: a single writer thread takes everything queued (waiting up
+ * to batchMs for more, at most maxBatch records), writes it in one call and forces it once,
+ * so concurrent writers share an fsync instead of queueing for one each.
+ */
+public class WriteAheadLog implements Closeable {
+
+    /**
+     * When appended records are forced to the storage device
+     */
+    public enum FsyncPolicy {
+        ALWAYS, // force after every append
+        INTERVAL, // force from a background thread every few milliseconds
+        NEVER // leave it to the operating system
+    }
+
+    private static final int HEADER_BYTES = 8;
+
+    private final Path logPath;
+    private final FsyncPolicy fsyncPolicy;
+    private final FileChannel channel;
+    private final ScheduledExecutorService syncer;
+    private final long batchNanos;
+    private final int maxBatch;
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    // Guards closed together with the queue, so nothing can be queued behind STOP
+    private final Object enqueueLock = new Object();
+    private final Thread writer;
+    private int recordCount;
+    private volatile boolean dirty;
+    private volatile boolean closed;
+
+    public WriteAheadLog(Path logPath, FsyncPolicy fsyncPolicy, long fsyncIntervalMs) throws IOException {
+        this(logPath, fsyncPolicy, fsyncIntervalMs, 0, 512);
+    }
+
+    /**
+     * @param batchMs  how long the writer waits for more records before committing a batch;
+     *                 0 commits whatever queued up while the previous batch was being written
+     * @param maxBatch most records committed in one write
+     */
+    public WriteAheadLog(Path logPath, FsyncPolicy fsyncPolicy, long fsyncIntervalMs, long batchMs, int maxBatch)
+            throws IOException {
+        this.logPath = logPath;
+        this.fsyncPolicy = fsyncPolicy;
+        this.batchNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, batchMs));
+        this.maxBatch = Math.max(1, maxBatch);
+        this.channel = FileChannel.open(logPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.writer = new Thread(this::writeLoop, "wal-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "wal-fsync");
+                t.setDaemon(true);
+                return t;
+            });
+            syncer.scheduleWithFixedDelay(this::forceIfDirty, fsyncIntervalMs, fsyncIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.syncer = null;
+        }
+    }
+
+    /**
+     * Read every intact record in the log, oldest first.
+     * The file is scanned through a memory map, checking each record's length and CRC32C.
+     * Everything from the first torn or corrupt record onwards is the tail of a write that
+     * never completed, and is cut off so new appends follow the last good record.
+     */
+    public synchronized void replay(Consumer<String> consumer) throws IOException {
+        recordCount = 0;
+        long size = channel.size();
+        if (size == 0) {
+            return;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Write-ahead log is too large to replay: " + logPath);
+        }
+        MappedByteBuffer map;
+        try (FileChannel reader = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            map = reader.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        if (map.get(0) == '{') {
+            replayLegacy(consumer);
+            return;
+        }
+
+        CRC32C crc = new CRC32C();
+        int position = 0;
+        while (map.remaining() >= HEADER_BYTES) {
+            int length = map.getInt();
+            int checksum = map.getInt();
+            if (length < 0 || length > map.remaining()) {
+                break;
+            }
+            ByteBuffer payload = map.slice();
+            payload.limit(length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            consumer.accept(StandardCharsets.UTF_8.decode(payload).toString());
+            recordCount++;
+            map.position(map.position() + length);
+            position = map.position();
+        }
+        if (position < size) {
+            System.err.println("Truncating write-ahead log " + logPath + " from " + size + " to " + position
+                    + " bytes after a torn or corrupt record");
+            channel.truncate(position);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Replay a log written one JSON record per line by older versions, then rewrite it framed
+     */
+    private void replayLegacy(Consumer<String> consumer) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(logPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    records.add(line);
+                }
+            }
+        }
+        records.forEach(consumer);
+        channel.truncate(0);
+        writeFully(frame(records));
+        channel.force(true);
+        recordCount = records.size();
+    }
+
+    /**
+     * Encode records as [length][CRC32C][UTF-8 payload], with big-endian ints
+     */
+    private static ByteBuffer frame(List<String> records) {
+        List<byte[]> payloads = new ArrayList<>(records.size());
+        int total = 0;
+        for (String record : records) {
+            byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+            payloads.add(bytes);
+            total += HEADER_BYTES + bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        CRC32C crc = new CRC32C();
+        for (byte[] bytes : payloads) {
+            crc.reset();
+            crc.update(bytes);
+            buffer.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        }
+        return buffer.flip();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Append a single record and wait until it is durable
+     */
+    public void append(String record) throws IOException {
+        await(appendAsync(record));
+    }
+
+    /**
+     * Append several records in one batch and wait until they are durable
+     */
+    public void appendAll(List<String> records) throws IOException {
+        await(appendAllAsync(records));
+    }
+
+    /**
+     * Queue a record; the future completes once the batch holding it has been written
+     * (and forced, under {@link FsyncPolicy#ALWAYS})
+     */
+    public CompletableFuture<Void> appendAsync(String record) {
+        return enqueue(Collections.singletonList(record));
+    }
+
+    /**
+     * Queue several records to be committed together
+     */
+    public CompletableFuture<Void> appendAllAsync(List<String> records) {
+        return enqueue(new ArrayList<>(records));
+    }
+
+    private CompletableFuture<Void> enqueue(List<String> records) {
+        PendingAppend pending = new PendingAppend(records);
+        synchronized (enqueueLock) {
+            if (closed) {
+                pending.future.completeExceptionally(new IOException("Write-ahead log is closed"));
+            } else {
+                queue.add(pending);
+            }
+        }
+        return pending.future;
+    }
+
+    private static void await(CompletableFuture<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the write-ahead log");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Write-ahead log append failed", e.getCause());
+        }
+    }
+
+    /**
+     * Runs on the writer thread: collect a batch, commit it, repeat until closed
+     */
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                PendingAppend first = queue.take();
+                if (first == PendingAppend.STOP) {
+                    break;
+                }
+                batch.add(first);
+                int records = first.records.size();
+                long deadline = System.nanoTime() + batchNanos;
+                while (records < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingAppend next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == PendingAppend.STOP) {
+                        stopping = true;
+                        break;
+                    }
+                    batch.add(next);
+                    records += next.records.size();
+                }
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    private void commit(List<PendingAppend> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> records = new ArrayList<>();
+        for (PendingAppend pending : batch) {
+            records.addAll(pending.records);
+        }
+        try {
+            synchronized (this) {
+                writeFully(frame(records));
+                recordCount += records.size();
+
+                if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                    channel.force(false);
+                } else {
+                    dirty = true;
+                }
+            }
+            for (PendingAppend pending : batch) {
+                pending.future.complete(null);
+            }
+        } catch (IOException e) {
+            for (PendingAppend pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Number of records appended since the log was last reset
+     */
+    public synchronized int size() {
+        return recordCount;
+    }
+
+    /**
+     * Discard all records, after their contents have been compacted into a snapshot
+     */
+    public synchronized void reset() throws IOException {
+        channel.truncate(0);
+        channel.force(true);
+        recordCount = 0;
+        dirty = false;
+    }
+
+    private void forceIfDirty() {
+        if (!dirty) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                dirty = false;
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            System.err.println("Error syncing write-ahead log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Commit everything already queued, then stop the writer and release the file
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (enqueueLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(PendingAppend.STOP);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingAppend leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.future.completeExceptionally(new IOException("Write-ahead log is closed"));
+        }
+        synchronized (this) {
+            if (syncer != null) {
+                syncer.shutdownNow();
+            }
+            if (channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Records from one caller waiting for the writer thread
+     */
+    private static class PendingAppend {
+        static final PendingAppend STOP = new PendingAppend(Collections.emptyList());
+
+        final List<String> records;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingAppend(List<String> records) {
+            this.records = records;
+        }
+    }
+}
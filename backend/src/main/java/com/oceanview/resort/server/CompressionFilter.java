@@ -0,0 +1,180 @@
+package com.oceanview.resort.server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * gzip-compresses response bodies for clients that send Accept-Encoding: gzip.
+ * Handlers keep writing plain bytes with a fixed length; the exchange they are given
+ * switches qualifying responses to a chunked gzip stream. Only text-like content types of
+ * at least resort.gzip.minBytes (or of unknown, streamed length) are compressed, and a
+ * response that already has a Content-Encoding is left alone.
+ */
+public class CompressionFilter extends Filter {
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (!Gzip.isAccepted(exchange) || "HEAD".equals(exchange.getRequestMethod())) {
+            chain.doFilter(exchange);
+            return;
+        }
+        CompressingExchange compressing = new CompressingExchange(exchange);
+        try {
+            chain.doFilter(compressing);
+        } finally {
+            compressing.finish();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Compresses response bodies with gzip when the client accepts it";
+    }
+
+    private boolean shouldCompress(Headers headers, int status, long length) {
+        if (length < 0 || (length > 0 && length < Gzip.MIN_BYTES) || status == 204 || status == 304) {
+            return false;
+        }
+        if (headers.containsKey("Content-Encoding")) {
+            return false;
+        }
+        String type = headers.getFirst("Content-Type");
+        if (type == null) {
+            return false;
+        }
+        type = type.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.contains("json") || type.contains("javascript")
+                || type.contains("xml") || type.startsWith("image/svg");
+    }
+
+    /**
+     * Passes everything through to the real exchange except the response body, which it
+     * may swap for a gzip stream when the headers are sent
+     */
+    private class CompressingExchange extends HttpExchange {
+        private final HttpExchange exchange;
+        private OutputStream gzip;
+
+        CompressingExchange(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void sendResponseHeaders(int status, long length) throws IOException {
+            Headers headers = exchange.getResponseHeaders();
+            headers.add("Vary", "Accept-Encoding");
+            if (!shouldCompress(headers, status, length)) {
+                exchange.sendResponseHeaders(status, length);
+                return;
+            }
+            headers.set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(status, 0);
+            gzip = Gzip.open(exchange.getResponseBody());
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return gzip != null ? gzip : exchange.getResponseBody();
+        }
+
+        @Override
+        public void close() {
+            finish();
+            exchange.close();
+        }
+
+        /**
+         * Make sure the gzip stream is finished and its Deflater pooled, even if a handler
+         * never closed the body
+         */
+        void finish() {
+            if (gzip != null) {
+                try {
+                    gzip.close();
+                } catch (IOException e) {
+                    // The client has gone; nothing left to send
+                }
+            }
+        }
+
+        @Override
+        public Headers getRequestHeaders() {
+            return exchange.getRequestHeaders();
+        }
+
+        @Override
+        public Headers getResponseHeaders() {
+            return exchange.getResponseHeaders();
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return exchange.getRequestURI();
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return exchange.getRequestMethod();
+        }
+
+        @Override
+        public HttpContext getHttpContext() {
+            return exchange.getHttpContext();
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return exchange.getRequestBody();
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return exchange.getRemoteAddress();
+        }
+
+        @Override
+        public int getResponseCode() {
+            return exchange.getResponseCode();
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return exchange.getLocalAddress();
+        }
+
+        @Override
+        public String getProtocol() {
+            return exchange.getProtocol();
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return exchange.getAttribute(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            exchange.setAttribute(name, value);
+        }
+
+        @Override
+        public void setStreams(InputStream in, OutputStream out) {
+            exchange.setStreams(in, out);
+        }
+
+        @Override
+        public HttpPrincipal getPrincipal() {
+            return exchange.getPrincipal();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.oceanview.resort.server;
+
+import com.oceanview.resort.util.ConfigUtil;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * gzip encoding with pooled Deflaters.
+ * GZIPOutputStream allocates a Deflater (and its native buffers) per response and frees it
+ * on close; here the gzip header and trailer are written by hand around a raw Deflater that
+ * goes back to a small pool afterwards.
+ */
+public class Gzip {
+
+    /**
+     * Bodies smaller than this are sent uncompressed (resort.gzip.minBytes)
+     */
+    public static final long MIN_BYTES = ConfigUtil.getLong("resort.gzip.minBytes", 1024);
+
+    private static final int LEVEL = ConfigUtil.getInt("resort.gzip.level", 6);
+    private static final int MAX_POOLED = ConfigUtil.getInt("resort.gzip.pool",
+            Runtime.getRuntime().availableProcessors() * 2);
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private static final Queue<Deflater> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    /**
+     * Whether the request's Accept-Encoding allows a gzip response
+     */
+    public static boolean isAccepted(HttpExchange exchange) {
+        for (String header : exchange.getRequestHeaders().getOrDefault("Accept-Encoding", List.of())) {
+            for (String part : header.split(",")) {
+                String[] coding = part.trim().toLowerCase(Locale.ROOT).split(";");
+                String name = coding[0].trim();
+                if (!name.equals("gzip") && !name.equals("*")) {
+                    continue;
+                }
+                boolean refused = coding.length > 1 && coding[1].trim().matches("q=0(\\.0*)?");
+                return !refused;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compress a whole body at once
+     */
+    public static byte[] compress(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (OutputStream gzip = open(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A streaming gzip encoder over {@code target}; closing it finishes the gzip stream,
+     * closes the target and returns the Deflater to the pool
+     */
+    public static OutputStream open(OutputStream target) throws IOException {
+        return new GzipStream(target, borrow());
+    }
+
+    private static Deflater borrow() {
+        Deflater deflater = POOL.poll();
+        if (deflater == null) {
+            return new Deflater(LEVEL, true);
+        }
+        POOLED.decrementAndGet();
+        return deflater;
+    }
+
+    private static void release(Deflater deflater) {
+        deflater.reset();
+        if (POOLED.incrementAndGet() <= MAX_POOLED) {
+            POOL.offer(deflater);
+        } else {
+            POOLED.decrementAndGet();
+            deflater.end();
+        }
+    }
+
+    private static class GzipStream extends DeflaterOutputStream {
+        private final CRC32 crc = new CRC32();
+        private boolean finished;
+        private boolean released;
+
+        GzipStream(OutputStream out, Deflater deflater) throws IOException {
+            super(out, deflater, 8192);
+            out.write(HEADER);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            crc.update(b, off, len);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            super.finish();
+            writeIntLE(crc.getValue());
+            writeIntLE(def.getBytesRead());
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!released) {
+                    released = true;
+                    release(def);
+                }
+            }
+        }
+
+        private void writeIntLE(long value) throws IOException {
+            out.write((int) value & 0xff);
+            out.write((int) (value >> 8) & 0xff);
+            out.write((int) (value >> 16) & 0xff);
+            out.write((int) (value >> 24) & 0xff);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.oceanview.resort.server;
+
+import com.sun.net.httpserver.Headers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One client connection of {@link NioHttpServer}.
+ * Reading, parsing and the request queue are touched only by the selector thread.
+ * Handlers append response buffers from worker threads; the selector thread writes them
+ * out, and a handler producing faster than the client reads waits once MAX_QUEUED_BYTES
+ * are pending.
+ */
+final class NioConnection {
+
+    private static final int MAX_PIPELINED = 32;
+    private static final long MAX_QUEUED_BYTES = 1024 * 1024;
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final NioHttpServer server;
+    private final SocketChannel channel;
+    private final InetSocketAddress remoteAddress;
+    private final InetSocketAddress localAddress;
+    private SelectionKey key;
+
+    // Selector thread only
+    private ByteBuffer readBuffer;
+    private RequestHead head;
+    private byte[] body;
+    private int bodyFilled;
+    private final Deque<NioExchange> pipelined = new ArrayDeque<>();
+    private NioExchange current;
+    private boolean closeWhenFlushed;
+    private long lastActive = System.currentTimeMillis();
+
+    // Shared with worker threads
+    private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final Object drained = new Object();
+    private volatile boolean closed;
+
+    NioConnection(NioHttpServer server, SocketChannel channel) throws IOException {
+        this.server = server;
+        this.channel = channel;
+        this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+        this.localAddress = (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    BufferPool buffers() {
+        return server.buffers;
+    }
+
+    boolean isIdleSince(long cutoff) {
+        return current == null && pipelined.isEmpty() && writeQueue.isEmpty() && lastActive < cutoff;
+    }
+
+    void onReadable() throws IOException {
+        if (readBuffer == null) {
+            readBuffer = server.buffers.acquire();
+        }
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            close();
+            return;
+        }
+        lastActive = System.currentTimeMillis();
+        readBuffer.flip();
+        try {
+            parse();
+        } finally {
+            if (readBuffer != null) {
+                if (readBuffer.hasRemaining()) {
+                    readBuffer.compact();
+                } else {
+                    server.buffers.release(readBuffer);
+                    readBuffer = null;
+                }
+            }
+        }
+        // Stop reading from clients that pipeline far ahead of their responses
+        if (pipelined.size() >= MAX_PIPELINED && key.isValid()) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Consume every complete request in the read buffer
+     */
+    private void parse() throws IOException {
+        while (!closeWhenFlushed) {
+            if (head == null) {
+                int end = indexOf(readBuffer, HEADER_END);
+                if (end < 0) {
+                    if (readBuffer.remaining() == readBuffer.capacity()) {
+                        reject(431, "Request header fields too large");
+                    }
+                    return;
+                }
+                byte[] bytes = new byte[end - readBuffer.position()];
+                readBuffer.get(bytes);
+                readBuffer.position(readBuffer.position() + HEADER_END.length);
+                head = RequestHead.parse(new String(bytes, StandardCharsets.ISO_8859_1));
+                if (head == null) {
+                    reject(400, "Malformed request");
+                    return;
+                }
+                if (head.chunked) {
+                    reject(411, "Chunked request bodies are not supported; send Content-Length");
+                    return;
+                }
+                if (head.contentLength < 0 || head.contentLength > server.maxBodyBytes) {
+                    reject(413, "Request body too large");
+                    return;
+                }
+                body = new byte[(int) head.contentLength];
+                bodyFilled = 0;
+                if (head.expectContinue && body.length > readBuffer.remaining()) {
+                    writeNow(ByteBuffer.wrap(CONTINUE));
+                }
+            }
+            int take = Math.min(readBuffer.remaining(), body.length - bodyFilled);
+            readBuffer.get(body, bodyFilled, take);
+            bodyFilled += take;
+            if (bodyFilled < body.length) {
+                return;
+            }
+            NioExchange exchange = new NioExchange(this, server.findContext(head.uri.getPath()),
+                    head.method, head.uri, head.protocol, head.headers, body, head.keepAlive);
+            head = null;
+            body = null;
+            pipelined.add(exchange);
+            if (current == null) {
+                startNext();
+            }
+        }
+    }
+
+    private void startNext() {
+        current = pipelined.poll();
+        if (current != null) {
+            server.dispatch(current);
+        } else if (key.isValid() && !closeWhenFlushed) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Answer a request that cannot be parsed, then close the connection
+     */
+    private void reject(int code, String message) throws IOException {
+        byte[] text = message.getBytes(StandardCharsets.UTF_8);
+        String response = "HTTP/1.1 " + code + " " + NioExchange.reason(code) + "\r\n"
+                + "Content-Type: text/plain; charset=utf-8\r\n"
+                + "Content-Length: " + text.length + "\r\n"
+                + "Connection: close\r\n\r\n";
+        byte[] headBytes = response.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer out = ByteBuffer.allocate(headBytes.length + text.length).put(headBytes).put(text);
+        out.flip();
+        head = null;
+        body = null;
+        pipelined.clear();
+        closeWhenFlushed = true;
+        if (key.isValid()) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+        if (current == null) {
+            writeNow(out);
+        }
+        // With a response in flight the connection simply closes once that response is sent
+    }
+
+    /**
+     * Queue bytes from the selector thread, which must never wait on itself to drain
+     */
+    private void writeNow(ByteBuffer buffer) throws IOException {
+        queuedBytes.addAndGet(buffer.remaining());
+        writeQueue.add(buffer);
+        flush();
+    }
+
+    /**
+     * Queue response bytes from a handler thread; blocks while too much is already pending
+     */
+    void enqueue(ByteBuffer buffer) throws IOException {
+        if (closed) {
+            server.buffers.release(buffer);
+            throw new IOException("Connection closed by client");
+        }
+        // The bounded executor runs rejected requests on the selector thread, which cannot wait on itself
+        if (queuedBytes.get() > MAX_QUEUED_BYTES && !server.isSelectorThread()) {
+            synchronized (drained) {
+                while (queuedBytes.get() > MAX_QUEUED_BYTES && !closed) {
+                    try {
+                        drained.wait(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while sending response");
+                    }
+                }
+            }
+        }
+        queuedBytes.addAndGet(buffer.remaining());
+        writeQueue.add(buffer);
+        server.onSelectorThread(this::flushQuietly);
+    }
+
+    /**
+     * Called by the exchange once its response is complete
+     */
+    void exchangeComplete(NioExchange exchange, boolean closeConnection) {
+        server.onSelectorThread(() -> {
+            if (exchange != current || closed) {
+                return;
+            }
+            current = null;
+            if (closeConnection) {
+                closeWhenFlushed = true;
+                pipelined.clear();
+            } else {
+                startNext();
+            }
+            flushQuietly();
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    /**
+     * Write as much queued output as the socket takes; selector thread only
+     */
+    void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+        ByteBuffer buffer;
+        while ((buffer = writeQueue.peek()) != null) {
+            int written = channel.write(buffer);
+            if (written > 0) {
+                queuedBytes.addAndGet(-written);
+                lastActive = System.currentTimeMillis();
+            }
+            if (buffer.hasRemaining()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                wakeWriters();
+                return;
+            }
+            writeQueue.poll();
+            server.buffers.release(buffer);
+        }
+        if (key.isValid()) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+        wakeWriters();
+        if (closeWhenFlushed && current == null) {
+            close();
+        }
+    }
+
+    private void wakeWriters() {
+        if (queuedBytes.get() <= MAX_QUEUED_BYTES) {
+            synchronized (drained) {
+                drained.notifyAll();
+            }
+        }
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to do with this connection
+        }
+        server.buffers.release(readBuffer);
+        readBuffer = null;
+        ByteBuffer buffer;
+        while ((buffer = writeQueue.poll()) != null) {
+            server.buffers.release(buffer);
+        }
+        synchronized (drained) {
+            drained.notifyAll();
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte[] pattern) {
+        int last = buffer.limit() - pattern.length;
+        outer:
+        for (int i = buffer.position(); i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buffer.get(i + j) != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Request line and headers of one request
+     */
+    private static final class RequestHead {
+        String method;
+        URI uri;
+        String protocol;
+        Headers headers = new Headers();
+        long contentLength;
+        boolean chunked;
+        boolean keepAlive;
+        boolean expectContinue;
+
+        /**
+         * @return null when the request line or a header is malformed
+         */
+        static RequestHead parse(String text) {
+            String[] lines = text.split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+                return null;
+            }
+            RequestHead head = new RequestHead();
+            head.method = requestLine[0];
+            head.protocol = requestLine[2];
+            try {
+                head.uri = new URI(requestLine[1]);
+            } catch (Exception e) {
+                return null;
+            }
+            if (head.uri.getPath() == null) {
+                return null;
+            }
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon <= 0) {
+                    return null;
+                }
+                head.headers.add(lines[i].substring(0, colon).trim(), lines[i].substring(colon + 1).trim());
+            }
+
+            try {
+                String length = head.headers.getFirst("Content-Length");
+                head.contentLength = length == null ? 0 : Long.parseLong(length);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            String encoding = head.headers.getFirst("Transfer-Encoding");
+            head.chunked = encoding != null && encoding.toLowerCase().contains("chunked");
+            String connection = head.headers.getFirst("Connection");
+            head.keepAlive = "HTTP/1.1".equals(head.protocol)
+                    ? connection == null || !connection.equalsIgnoreCase("close")
+                    : connection != null && connection.equalsIgnoreCase("keep-alive");
+            head.expectContinue = "100-continue".equalsIgnoreCase(head.headers.getFirst("Expect"));
+            return head;
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.oceanview.resort.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One request on a {@link NioHttpServer} connection, presented as an HttpExchange so the
+ * existing filters and handlers run on it unchanged.
+ * Response lengths follow the JDK server: -1 means no body, 0 means a chunked body of
+ * unknown length, and anything else is the exact Content-Length. The status line, headers
+ * and body are written into pooled direct buffers that the connection sends in order.
+ */
+final class NioExchange extends HttpExchange {
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+    private static volatile String cachedDate = "";
+    private static volatile long cachedDateSecond;
+
+    private final NioConnection connection;
+    private final NioHttpServer.NioContext context;
+    private final String method;
+    private final URI uri;
+    private final String protocol;
+    private final Headers requestHeaders;
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final boolean keepAlive;
+    private InputStream requestBody;
+    private final ResponseStream responseStream = new ResponseStream();
+    private OutputStream responseBody = responseStream;
+    private int responseCode = -1;
+    private boolean closeConnection;
+
+    NioExchange(NioConnection connection, NioHttpServer.NioContext context, String method, URI uri,
+            String protocol, Headers requestHeaders, byte[] body, boolean keepAlive) {
+        this.connection = connection;
+        this.context = context;
+        this.method = method;
+        this.uri = uri;
+        this.protocol = protocol;
+        this.requestHeaders = requestHeaders;
+        this.requestBody = new ByteArrayInputStream(body);
+        this.keepAlive = keepAlive;
+    }
+
+    NioHttpServer.NioContext getNioContext() {
+        return context;
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return uri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return context;
+    }
+
+    @Override
+    public void close() {
+        try {
+            requestBody.close();
+            responseBody.close();
+        } catch (IOException e) {
+            // The connection is already gone; nothing more to send
+        }
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders(int code, long length) throws IOException {
+        if (responseCode != -1) {
+            throw new IOException("Response headers already sent");
+        }
+        responseCode = code;
+        boolean noBody = "HEAD".equals(method) || code == 204 || code == 304 || code < 200;
+
+        if (noBody) {
+            if (!"HEAD".equals(method)) {
+                responseHeaders.remove("Content-Length");
+            }
+        } else if (length == -1) {
+            responseHeaders.set("Content-Length", "0");
+        } else if (length == 0) {
+            responseHeaders.set("Transfer-Encoding", "chunked");
+        } else {
+            responseHeaders.set("Content-Length", Long.toString(length));
+        }
+        closeConnection = !keepAlive || "close".equalsIgnoreCase(responseHeaders.getFirst("Connection"));
+        if (closeConnection) {
+            responseHeaders.set("Connection", "close");
+        } else if ("HTTP/1.0".equals(protocol)) {
+            // HTTP/1.0 clients close after the response unless it confirms keep-alive
+            responseHeaders.set("Connection", "keep-alive");
+        }
+        responseHeaders.set("Date", httpDate());
+
+        StringBuilder head = new StringBuilder(256);
+        head.append("HTTP/1.1 ").append(code).append(' ').append(reason(code)).append("\r\n");
+        for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            for (String value : header.getValue()) {
+                head.append(header.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+        head.append("\r\n");
+        responseStream.start(head.toString().getBytes(StandardCharsets.ISO_8859_1),
+                noBody || length == -1 ? ResponseStream.NONE : length == 0 ? ResponseStream.CHUNKED : length);
+        if (noBody || length == -1) {
+            responseStream.close();
+        }
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return connection.getRemoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return connection.getLocalAddress();
+    }
+
+    @Override
+    public String getProtocol() {
+        return protocol;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void setStreams(InputStream in, OutputStream out) {
+        if (in != null) {
+            requestBody = in;
+        }
+        if (out != null) {
+            responseBody = out;
+        }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+    /**
+     * Answer with a bare status, for requests no context handles
+     */
+    void sendError(int code) throws IOException {
+        byte[] text = (code + " " + reason(code)).getBytes(StandardCharsets.UTF_8);
+        responseHeaders.set("Content-Type", "text/plain; charset=utf-8");
+        sendResponseHeaders(code, text.length);
+        try (OutputStream out = responseStream) {
+            out.write(text);
+        }
+    }
+
+    /**
+     * Complete the exchange if the handler left it open: 500 when nothing was sent,
+     * otherwise whatever body was written so far
+     */
+    void finishAfterHandler() {
+        try {
+            if (responseCode == -1) {
+                responseHeaders.clear();
+                responseHeaders.set("Connection", "close");
+                sendError(500);
+            }
+            responseBody.close();
+            responseStream.close();
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    private static String httpDate() {
+        long second = System.currentTimeMillis() / 1000;
+        if (second != cachedDateSecond) {
+            cachedDate = HTTP_DATE.format(ZonedDateTime.now(ZoneOffset.UTC));
+            cachedDateSecond = second;
+        }
+        return cachedDate;
+    }
+
+    static String reason(int code) {
+        switch (code) {
+            case 100: return "Continue";
+            case 200: return "OK";
+            case 201: return "Created";
+            case 204: return "No Content";
+            case 304: return "Not Modified";
+            case 400: return "Bad Request";
+            case 401: return "Unauthorized";
+            case 403: return "Forbidden";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 409: return "Conflict";
+            case 411: return "Length Required";
+            case 412: return "Precondition Failed";
+            case 413: return "Payload Too Large";
+            case 428: return "Precondition Required";
+            case 429: return "Too Many Requests";
+            case 431: return "Request Header Fields Too Large";
+            case 500: return "Internal Server Error";
+            case 503: return "Service Unavailable";
+            default: return "Status " + code;
+        }
+    }
+
+    /**
+     * Response body written straight into pooled buffers.
+     * Chunked bodies leave room at the start of each buffer for the chunk size, which is
+     * filled in as four zero-padded hex digits once the buffer is full, so framing needs no copy.
+     */
+    private final class ResponseStream extends OutputStream {
+        static final long NONE = -1;
+        static final long CHUNKED = -2;
+        // "XXXX\r\n" before the chunk data; "\r\n" after it plus "0\r\n\r\n" for the last chunk
+        private static final int CHUNK_HEADER = 6;
+        private static final int CHUNK_TRAILER = 7;
+
+        private long mode = NONE;
+        private long written;
+        private ByteBuffer buffer;
+        private int chunkStart;
+        private boolean started;
+        private boolean closed;
+
+        void start(byte[] head, long mode) throws IOException {
+            this.mode = mode;
+            started = true;
+            buffer = connection.buffers().acquire();
+            if (head.length > buffer.capacity() - CHUNK_HEADER - CHUNK_TRAILER) {
+                connection.enqueue(ByteBuffer.wrap(head));
+            } else {
+                buffer.put(head);
+            }
+            if (mode == CHUNKED) {
+                beginChunk();
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (!started) {
+                throw new IOException("Response headers not sent yet");
+            }
+            if (closed) {
+                throw new IOException("Response body already closed");
+            }
+            if (mode == NONE) {
+                // HEAD, 204 and 304 responses never carry a body
+                return;
+            }
+            if (mode >= 0 && written + length > mode) {
+                throw new IOException("Response body longer than the declared Content-Length " + mode);
+            }
+            written += length;
+            while (length > 0) {
+                int room = buffer.capacity() - buffer.position() - (mode == CHUNKED ? CHUNK_TRAILER : 0);
+                if (room == 0) {
+                    sendBuffer();
+                    continue;
+                }
+                int take = Math.min(room, length);
+                buffer.put(bytes, offset, take);
+                offset += take;
+                length -= take;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (started && !closed && buffer.position() > (mode == CHUNKED ? chunkStart + CHUNK_HEADER : 0)) {
+                sendBuffer();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!started || closed) {
+                return;
+            }
+            closed = true;
+            if (mode == CHUNKED) {
+                endChunk();
+                buffer.put((byte) '0').put((byte) '\r').put((byte) '\n').put((byte) '\r').put((byte) '\n');
+            }
+            buffer.flip();
+            ByteBuffer last = buffer;
+            buffer = null;
+            boolean complete = mode < 0 || written == mode;
+            try {
+                if (last.hasRemaining()) {
+                    connection.enqueue(last);
+                } else {
+                    connection.buffers().release(last);
+                }
+            } finally {
+                // A short fixed-length body leaves the client waiting for bytes that never come
+                connection.exchangeComplete(NioExchange.this, closeConnection || !complete);
+            }
+        }
+
+        private void sendBuffer() throws IOException {
+            if (mode == CHUNKED) {
+                endChunk();
+            }
+            buffer.flip();
+            ByteBuffer full = buffer;
+            buffer = connection.buffers().acquire();
+            connection.enqueue(full);
+            if (mode == CHUNKED) {
+                beginChunk();
+            }
+        }
+
+        private void beginChunk() {
+            chunkStart = buffer.position();
+            buffer.position(chunkStart + CHUNK_HEADER);
+        }
+
+        private void endChunk() {
+            int size = buffer.position() - chunkStart - CHUNK_HEADER;
+            if (size == 0) {
+                buffer.position(chunkStart);
+                return;
+            }
+            for (int i = 0; i < 4; i++) {
+                buffer.put(chunkStart + i, (byte) Character.forDigit((size >> (12 - 4 * i)) & 0xF, 16));
+            }
+            buffer.put(chunkStart + 4, (byte) '\r').put(chunkStart + 5, (byte) '\n');
+            buffer.put((byte) '\r').put((byte) '\n');
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.oceanview.resort.server;
+
+import com.oceanview.resort.util.ConfigUtil;
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * An HTTP/1.1 server on a single NIO selector thread, usable wherever the JDK HttpServer is.
+ * Connections are kept alive and may pipeline requests; each connection answers its
+ * requests one at a time, in order. Reads and response bodies use pooled direct buffers.
+ * Requests are routed to contexts by longest path prefix, as the JDK server does, and run
+ * through the context's filters and handler on the configured executor, so existing
+ * handlers and filters work unchanged.
+ *
+ * Limits: request bodies must carry a Content-Length (resort.nio.maxBodyBytes), request
+ * heads must fit in one buffer (resort.nio.bufferSize), and idle connections are closed
+ * after resort.nio.idleSeconds.
+ */
+public class NioHttpServer extends HttpServer {
+
+    final BufferPool buffers = new BufferPool(
+            Math.min(ConfigUtil.getInt("resort.nio.bufferSize", 16 * 1024), 64 * 1024),
+            ConfigUtil.getInt("resort.nio.maxPooledBuffers", 1024));
+    final int maxBodyBytes = ConfigUtil.getInt("resort.nio.maxBodyBytes", 10 * 1024 * 1024);
+    private final long idleTimeoutMillis = ConfigUtil.getLong("resort.nio.idleSeconds", 60) * 1000;
+
+    private final List<NioContext> contexts = new CopyOnWriteArrayList<>();
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private ServerSocketChannel serverChannel;
+    private Selector selector;
+    private Executor executor;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    public static NioHttpServer create(InetSocketAddress address, int backlog) throws IOException {
+        NioHttpServer server = new NioHttpServer();
+        server.bind(address, backlog);
+        return server;
+    }
+
+    @Override
+    public void bind(InetSocketAddress address, int backlog) throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(address, backlog);
+        selector = Selector.open();
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    @Override
+    public void start() {
+        if (serverChannel == null) {
+            throw new IllegalStateException("Server is not bound");
+        }
+        if (executor == null) {
+            executor = Runnable::run;
+        }
+        running = true;
+        // Not a daemon: like the JDK server's dispatcher, it keeps the process alive
+        selectorThread = new Thread(this::selectLoop, "nio-http-selector");
+        selectorThread.start();
+    }
+
+    @Override
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void stop(int delaySeconds) {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (selectorThread != null && Thread.currentThread() != selectorThread) {
+            try {
+                selectorThread.join(Math.max(1, delaySeconds) * 1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public HttpContext createContext(String path, HttpHandler handler) {
+        for (NioContext context : contexts) {
+            if (context.getPath().equals(path)) {
+                throw new IllegalArgumentException("A context already exists for " + path);
+            }
+        }
+        NioContext context = new NioContext(path, handler);
+        contexts.add(context);
+        return context;
+    }
+
+    @Override
+    public HttpContext createContext(String path) {
+        return createContext(path, null);
+    }
+
+    @Override
+    public void removeContext(String path) {
+        if (!contexts.removeIf(context -> context.getPath().equals(path))) {
+            throw new IllegalArgumentException("No context for " + path);
+        }
+    }
+
+    @Override
+    public void removeContext(HttpContext context) {
+        contexts.remove(context);
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The context with the longest path that prefixes the request path, or null
+     */
+    NioContext findContext(String path) {
+        NioContext best = null;
+        for (NioContext context : contexts) {
+            if (path.startsWith(context.getPath())
+                    && (best == null || context.getPath().length() > best.getPath().length())) {
+                best = context;
+            }
+        }
+        return best;
+    }
+
+    boolean isSelectorThread() {
+        return Thread.currentThread() == selectorThread;
+    }
+
+    /**
+     * Run a task on the selector thread, which owns all connection state
+     */
+    void onSelectorThread(Runnable task) {
+        selectorTasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Run a parsed request through its context's filters and handler on the executor
+     */
+    void dispatch(NioExchange exchange) {
+        executor.execute(() -> {
+            try {
+                NioContext context = exchange.getNioContext();
+                if (context == null || context.getHandler() == null) {
+                    exchange.sendError(404);
+                } else {
+                    new Filter.Chain(context.getFilters(), context.getHandler()).doFilter(exchange);
+                }
+            } catch (Throwable e) {
+                System.err.println("Error handling " + exchange.getRequestMethod() + " "
+                        + exchange.getRequestURI() + ": " + e);
+            } finally {
+                exchange.finishAfterHandler();
+            }
+        });
+    }
+
+    private void selectLoop() {
+        long lastIdleCheck = System.currentTimeMillis();
+        try {
+            while (running) {
+                selector.select(1000);
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) {
+                    task.run();
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    handleKey(key);
+                }
+                selector.selectedKeys().clear();
+
+                long now = System.currentTimeMillis();
+                if (now - lastIdleCheck >= 1000) {
+                    lastIdleCheck = now;
+                    closeIdleConnections(now);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("NIO HTTP server stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof NioConnection) {
+                    ((NioConnection) key.attachment()).close();
+                }
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                // Already shutting down
+            }
+        }
+    }
+
+    private void handleKey(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        NioConnection connection = (NioConnection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                connection.onReadable();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.flush();
+            }
+        } catch (IOException | CancelledKeyException e) {
+            connection.close();
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                NioConnection connection = new NioConnection(this, channel);
+                connection.setKey(channel.register(selector, SelectionKey.OP_READ, connection));
+            }
+        } catch (IOException e) {
+            System.err.println("Error accepting connection: " + e.getMessage());
+        }
+    }
+
+    private void closeIdleConnections(long now) {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof NioConnection) {
+                NioConnection connection = (NioConnection) key.attachment();
+                if (connection.isIdleSince(now - idleTimeoutMillis)) {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * A registered path prefix with its handler and filters
+     */
+    class NioContext extends HttpContext {
+        private final String path;
+        private volatile HttpHandler handler;
+        private final List<Filter> filters = new CopyOnWriteArrayList<>();
+        private final Map<String, Object> attributes = new HashMap<>();
+        private Authenticator authenticator;
+
+        NioContext(String path, HttpHandler handler) {
+            this.path = path;
+            this.handler = handler;
+        }
+
+        @Override
+        public HttpHandler getHandler() {
+            return handler;
+        }
+
+        @Override
+        public void setHandler(HttpHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public HttpServer getServer() {
+            return NioHttpServer.this;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public List<Filter> getFilters() {
+            return filters;
+        }
+
+        @Override
+        public Authenticator setAuthenticator(Authenticator authenticator) {
+            Authenticator previous = this.authenticator;
+            this.authenticator = authenticator;
+            return previous;
+        }
+
+        @Override
+        public Authenticator getAuthenticator() {
+            return authenticator;
+        }
+    }
+}
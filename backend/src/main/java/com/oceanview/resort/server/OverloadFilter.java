@@ -0,0 +1,37 @@
+package com.oceanview.resort.server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Answers 503 Service Unavailable for requests the bounded executor could not queue
+ */
+public class OverloadFilter extends Filter {
+
+    private static final byte[] BODY = "{\"message\":\"Server is busy, please retry\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (!ServerExecutors.isOverloaded()) {
+            chain.doFilter(exchange);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        exchange.getResponseHeaders().set("Connection", "close");
+        exchange.sendResponseHeaders(503, BODY.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(BODY);
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Rejects requests with 503 when the request queue is full";
+    }
+}
@@ -0,0 +1,98 @@
+package com.oceanview.resort.server;
+
+import com.oceanview.resort.util.ConfigUtil;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the request executor for the HTTP server.
+ * The mode is chosen with resort.executor:
+ * - "virtual": one virtual thread per request (needs Java 21; falls back to "bounded")
+ * - "bounded": platform threads with a bounded queue; requests beyond it get 503
+ * - "fixed": the original fixed pool with an unbounded queue
+ */
+public class ServerExecutors {
+
+    private static final ThreadLocal<Boolean> OVERLOADED = new ThreadLocal<>();
+
+    /**
+     * Create the executor selected by configuration
+     */
+    public static ExecutorService create() {
+        String mode = ConfigUtil.get("resort.executor", "bounded").toLowerCase();
+        int threads = ConfigUtil.getInt("resort.executor.threads", 32);
+        int queueLimit = ConfigUtil.getInt("resort.executor.queue", 256);
+
+        switch (mode) {
+            case "virtual":
+                ExecutorService virtual = newVirtualThreadExecutor();
+                if (virtual != null) {
+                    return virtual;
+                }
+                System.err.println("Virtual threads need Java 21 or newer; using a bounded pool instead");
+                return newBoundedExecutor(threads, queueLimit);
+            case "fixed":
+                return Executors.newFixedThreadPool(threads, namedThreads("http-worker"));
+            case "bounded":
+                return newBoundedExecutor(threads, queueLimit);
+            default:
+                throw new IllegalArgumentException("Unknown resort.executor mode: " + mode);
+        }
+    }
+
+    /**
+     * Platform thread pool with a bounded queue.
+     * When the queue is full the request still has to be answered, so it is run on the
+     * accepting thread flagged as overloaded, and {@link OverloadFilter} replies 503 at once.
+     */
+    public static ExecutorService newBoundedExecutor(int threads, int queueLimit) {
+        RejectedExecutionHandler rejectAs503 = (task, executor) -> {
+            if (executor.isShutdown()) {
+                return;
+            }
+            OVERLOADED.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                OVERLOADED.remove();
+            }
+        };
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueLimit)), namedThreads("http-worker"), rejectAs503);
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor(), looked up reflectively so the code
+     * still compiles for Java 17; null when the running JVM has no virtual threads
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether the current request was rejected by the bounded executor's queue
+     */
+    static boolean isOverloaded() {
+        return Boolean.TRUE.equals(OVERLOADED.get());
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
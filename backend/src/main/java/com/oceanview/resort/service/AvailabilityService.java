@@ -0,0 +1,181 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Reservation.RoomType;
+import com.oceanview.resort.util.ConfigUtil;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Room inventory and per-night occupancy for each room type.
+ * Occupancy is kept as one int[] per calendar year per room type, holding the
+ * number of rooms taken each night, so checking and taking a stay costs O(nights).
+ */
+public class AvailabilityService {
+
+    private final Map<RoomType, RoomCalendar> calendars = new EnumMap<>(RoomType.class);
+    private final int totalRooms;
+
+    public AvailabilityService() {
+        this(defaultInventory());
+    }
+
+    public AvailabilityService(Map<RoomType, Integer> inventory) {
+        int total = 0;
+        for (RoomType type : RoomType.values()) {
+            int rooms = inventory.getOrDefault(type, 0);
+            calendars.put(type, new RoomCalendar(rooms));
+            total += rooms;
+        }
+        this.totalRooms = total;
+    }
+
+    /**
+     * Room counts per type, configurable as resort.rooms.standard, resort.rooms.deluxe, resort.rooms.suite
+     */
+    private static Map<RoomType, Integer> defaultInventory() {
+        Map<RoomType, Integer> inventory = new EnumMap<>(RoomType.class);
+        inventory.put(RoomType.STANDARD, ConfigUtil.getInt("resort.rooms.standard", 20));
+        inventory.put(RoomType.DELUXE, ConfigUtil.getInt("resort.rooms.deluxe", 10));
+        inventory.put(RoomType.SUITE, ConfigUtil.getInt("resort.rooms.suite", 5));
+        return inventory;
+    }
+
+    /**
+     * Check whether a room of the given type is free every night of [checkIn, checkOut)
+     */
+    public boolean isAvailable(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        return calendars.get(type).isFree(checkIn, checkOut);
+    }
+
+    /**
+     * Take a room for every night of [checkIn, checkOut) if one is free on all of them
+     *
+     * @return false when at least one night is fully booked; nothing is taken in that case
+     */
+    public boolean tryReserve(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        return calendars.get(type).tryTake(checkIn, checkOut);
+    }
+
+    /**
+     * Move a stay from one room type and date range to another, touching only the nights that differ.
+     * Within one room type the swap is atomic, so a stay that is only being shortened or shifted
+     * can reuse its own nights. Across room types the new nights are taken before the old are given back.
+     *
+     * @return false when the new stay does not fit; the old one is kept in that case
+     */
+    public boolean tryChange(Reservation from, RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        if (from.getRoomType() == type && from.getCheckInDate() != null && from.getCheckOutDate() != null) {
+            return calendars.get(type).tryMove(from.getCheckInDate(), from.getCheckOutDate(), checkIn, checkOut);
+        }
+        if (!tryReserve(type, checkIn, checkOut)) {
+            return false;
+        }
+        releaseExisting(from);
+        return true;
+    }
+
+    /**
+     * Record an existing reservation without checking capacity, e.g. when loading history
+     */
+    public void reserveExisting(Reservation reservation) {
+        if (reservation.getRoomType() == null || reservation.getCheckInDate() == null
+                || reservation.getCheckOutDate() == null) {
+            return;
+        }
+        calendars.get(reservation.getRoomType()).add(reservation.getCheckInDate(), reservation.getCheckOutDate(), 1);
+    }
+
+    /**
+     * Give back a room taken for [checkIn, checkOut)
+     */
+    public void release(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        calendars.get(type).add(checkIn, checkOut, -1);
+    }
+
+    /**
+     * Give back the room held by a stored reservation, e.g. when it is cancelled
+     */
+    public void releaseExisting(Reservation reservation) {
+        if (reservation.getRoomType() == null || reservation.getCheckInDate() == null
+                || reservation.getCheckOutDate() == null) {
+            return;
+        }
+        release(reservation.getRoomType(), reservation.getCheckInDate(), reservation.getCheckOutDate());
+    }
+
+    /**
+     * Rooms of a type taken on the night of a date
+     */
+    public int roomsTaken(RoomType type, LocalDate night) {
+        return calendars.get(type).taken(night);
+    }
+
+    /**
+     * Share of all rooms taken on the night of a date, from 0.0 to 1.0
+     */
+    public double occupancyRate(LocalDate night) {
+        if (totalRooms == 0) {
+            return 0.0;
+        }
+        int taken = 0;
+        for (RoomCalendar calendar : calendars.values()) {
+            taken += Math.min(calendar.taken(night), calendar.capacity);
+        }
+        return (double) taken / totalRooms;
+    }
+
+    /**
+     * Nightly room counts for a single room type
+     */
+    private static class RoomCalendar {
+        private final int capacity;
+        private final Map<Integer, int[]> nightsByYear = new HashMap<>();
+
+        RoomCalendar(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized boolean isFree(LocalDate checkIn, LocalDate checkOut) {
+            for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+                if (taken(night) >= capacity) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        synchronized boolean tryTake(LocalDate checkIn, LocalDate checkOut) {
+            if (!isFree(checkIn, checkOut)) {
+                return false;
+            }
+            add(checkIn, checkOut, 1);
+            return true;
+        }
+
+        synchronized boolean tryMove(LocalDate oldCheckIn, LocalDate oldCheckOut,
+                LocalDate checkIn, LocalDate checkOut) {
+            add(oldCheckIn, oldCheckOut, -1);
+            if (tryTake(checkIn, checkOut)) {
+                return true;
+            }
+            add(oldCheckIn, oldCheckOut, 1);
+            return false;
+        }
+
+        synchronized void add(LocalDate checkIn, LocalDate checkOut, int delta) {
+            for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+                int[] nights = nightsByYear.computeIfAbsent(night.getYear(), y -> new int[366]);
+                nights[night.getDayOfYear() - 1] += delta;
+            }
+        }
+
+        synchronized int taken(LocalDate night) {
+            int[] nights = nightsByYear.get(night.getYear());
+            return nights == null ? 0 : nights[night.getDayOfYear() - 1];
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation;
+
+import java.util.List;
+
+/**
+ * One row of a bulk import and, once processed, its line in the result report
+ */
+public class BulkRow {
+
+    public enum Status {
+        PENDING, CREATED, REJECTED
+    }
+
+    private final int row;
+    private final String sourceRef;
+    private final transient Reservation reservation;
+    private Status status = Status.PENDING;
+    private String referenceId;
+    private List<ValidationError> codes;
+    private List<String> errors;
+
+    private BulkRow(int row, String sourceRef, Reservation reservation) {
+        this.row = row;
+        this.sourceRef = sourceRef;
+        this.reservation = reservation;
+    }
+
+    /**
+     * A row that was read into a reservation and still has to be validated
+     *
+     * @param sourceRef the reference the row carried in its source file, reported back but not kept
+     */
+    public static BulkRow parsed(int row, String sourceRef, Reservation reservation) {
+        return new BulkRow(row, sourceRef, reservation);
+    }
+
+    /**
+     * A row that could not be read at all
+     */
+    public static BulkRow unreadable(int row, String error) {
+        BulkRow result = new BulkRow(row, null, null);
+        result.status = Status.REJECTED;
+        result.errors = List.of(error);
+        return result;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getReferenceId() {
+        return referenceId;
+    }
+
+    public List<ValidationError> getCodes() {
+        return codes;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    boolean isPending() {
+        return status == Status.PENDING;
+    }
+
+    /**
+     * Mark the row rejected for the {@link ValidationError}s in a mask; 0 leaves it untouched
+     */
+    void reject(int errorMask) {
+        if (errorMask == 0) {
+            return;
+        }
+        status = Status.REJECTED;
+        codes = ValidationError.of(errorMask);
+        errors = ValidationError.messages(errorMask, reservation.getRoomType());
+    }
+
+    void created(String referenceId) {
+        this.status = Status.CREATED;
+        this.referenceId = referenceId;
+    }
+}
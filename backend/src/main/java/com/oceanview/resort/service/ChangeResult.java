@@ -0,0 +1,76 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation;
+
+import java.util.List;
+
+/**
+ * Outcome of modifying or cancelling a reservation
+ */
+public class ChangeResult {
+
+    public enum Outcome {
+        UPDATED, DELETED, NOT_FOUND, VERSION_CONFLICT, REJECTED
+    }
+
+    private final Outcome outcome;
+    private final Reservation reservation;
+    private final int errors;
+
+    private ChangeResult(Outcome outcome, Reservation reservation, int errors) {
+        this.outcome = outcome;
+        this.reservation = reservation;
+        this.errors = errors;
+    }
+
+    static ChangeResult updated(Reservation reservation) {
+        return new ChangeResult(Outcome.UPDATED, reservation, 0);
+    }
+
+    static ChangeResult deleted(Reservation reservation) {
+        return new ChangeResult(Outcome.DELETED, reservation, 0);
+    }
+
+    static ChangeResult notFound() {
+        return new ChangeResult(Outcome.NOT_FOUND, null, 0);
+    }
+
+    /**
+     * @param current the reservation as it is now, so the caller can report its version
+     */
+    static ChangeResult conflict(Reservation current) {
+        return new ChangeResult(Outcome.VERSION_CONFLICT, current, 0);
+    }
+
+    static ChangeResult rejected(Reservation request, int errors) {
+        return new ChangeResult(Outcome.REJECTED, request, errors);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * The saved or removed reservation; for a conflict the current one, for a rejection the proposed one
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    public List<ValidationError> getErrors() {
+        return ValidationError.of(errors);
+    }
+
+    public String getMessage() {
+        switch (outcome) {
+            case NOT_FOUND:
+                return "Reservation not found";
+            case VERSION_CONFLICT:
+                return "Reservation has changed; current version is " + ReservationService.versionOf(reservation);
+            case REJECTED:
+                return String.join(", ", ValidationError.messages(errors, reservation.getRoomType()));
+            default:
+                return null;
+        }
+    }
+}
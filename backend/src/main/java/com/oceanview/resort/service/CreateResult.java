@@ -0,0 +1,48 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation;
+
+import java.util.List;
+
+/**
+ * Outcome of creating a reservation: the saved reservation, or the reasons it was refused
+ */
+public class CreateResult {
+
+    private final Reservation reservation;
+    private final int errors;
+    private final Reservation.RoomType roomType;
+
+    private CreateResult(Reservation reservation, int errors, Reservation.RoomType roomType) {
+        this.reservation = reservation;
+        this.errors = errors;
+        this.roomType = roomType;
+    }
+
+    static CreateResult created(Reservation reservation) {
+        return new CreateResult(reservation, 0, reservation.getRoomType());
+    }
+
+    static CreateResult rejected(Reservation request, int errors) {
+        return new CreateResult(null, errors, request.getRoomType());
+    }
+
+    public boolean isCreated() {
+        return reservation != null;
+    }
+
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    public List<ValidationError> getErrors() {
+        return ValidationError.of(errors);
+    }
+
+    /**
+     * The refusal reasons joined into one sentence, as the API has always reported them
+     */
+    public String getMessage() {
+        return String.join(", ", ValidationError.messages(errors, roomType));
+    }
+}
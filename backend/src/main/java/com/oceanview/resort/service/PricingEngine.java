@@ -0,0 +1,97 @@
+package com.oceanview.resort.service;
+
+import com.google.gson.JsonParseException;
+import com.oceanview.resort.model.Reservation.BoardType;
+import com.oceanview.resort.model.Reservation.RoomType;
+import com.oceanview.resort.util.ConfigUtil;
+import com.oceanview.resort.util.FileUtil;
+import com.oceanview.resort.util.JsonUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prices stays in whole cents from {@link PricingRules}.
+ * Rules are compiled into a {@link RateTable} covering resort.pricing.pastDays before today
+ * to resort.pricing.futureDays after it, and published through an AtomicReference: a rule
+ * change is compiled on the caller's thread and swapped in whole, so pricing never waits
+ * and never sees half-applied rules.
+ */
+public class PricingEngine {
+
+    private final Path rulesPath;
+    private final int pastDays = ConfigUtil.getInt("resort.pricing.pastDays", 365);
+    private final int futureDays = ConfigUtil.getInt("resort.pricing.futureDays", 3 * 365);
+    private final AtomicReference<RateTable> table = new AtomicReference<>();
+
+    /**
+     * Flat enum rates, not backed by a file
+     */
+    public PricingEngine() {
+        this(null, new PricingRules());
+    }
+
+    private PricingEngine(Path rulesPath, PricingRules rules) {
+        this.rulesPath = rulesPath;
+        table.set(compile(rules));
+    }
+
+    /**
+     * Load rules from a file; a missing file means flat enum rates until rules are set
+     */
+    public static PricingEngine load(Path rulesPath) {
+        PricingRules rules = new PricingRules();
+        if (Files.exists(rulesPath)) {
+            try {
+                PricingRules loaded = JsonUtil.getGson().fromJson(Files.readString(rulesPath), PricingRules.class);
+                if (loaded != null) {
+                    loaded.validate();
+                    rules = loaded;
+                }
+            } catch (IOException | JsonParseException | IllegalArgumentException e) {
+                System.err.println("Ignoring pricing rules in " + rulesPath + ": " + e.getMessage());
+            }
+        }
+        return new PricingEngine(rulesPath, rules);
+    }
+
+    /**
+     * Price of the nights [checkIn, checkOut) in cents; the stay must already be valid
+     */
+    public long priceCents(RoomType roomType, BoardType boardType, LocalDate checkIn, LocalDate checkOut) {
+        return table.get().priceCents(roomType, boardType, checkIn, checkOut);
+    }
+
+    public PricingRules getRules() {
+        return table.get().getRules();
+    }
+
+    /**
+     * Validate, compile, save and publish new rules. Stays priced before the swap keep the old rates.
+     *
+     * @throws IllegalArgumentException when the rules are invalid; the current rules stay in force
+     */
+    public synchronized void setRules(PricingRules rules) throws IOException {
+        rules.validate();
+        RateTable compiled = compile(rules);
+        if (rulesPath != null) {
+            FileUtil.writeAtomically(rulesPath, JsonUtil.toJson(rules));
+        }
+        table.set(compiled);
+    }
+
+    private RateTable compile(PricingRules rules) {
+        LocalDate today = LocalDate.now();
+        return new RateTable(rules, today.minusDays(pastDays), today.plusDays(futureDays + 1));
+    }
+
+    /**
+     * Cents as the decimal amount used in the API and stored reservations
+     */
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+}
@@ -0,0 +1,139 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation.RoomType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate rules as stored in pricing-rules.json and exchanged over /api/pricing/rules.
+ * <pre>
+ * {
+ *   "baseRatesCents": {"SUITE": 4800000},
+ *   "seasons": [{"name": "Peak", "from": "2026-12-15", "to": "2027-01-05", "multiplier": 1.3}],
+ *   "dayOfWeek": {"FRIDAY": 1.1, "SATURDAY": 1.2},
+ *   "lengthOfStay": [{"minNights": 7, "discountPercent": 10}]
+ * }
+ * </pre>
+ * A night's room rate is the base rate times the multiplier of the season covering it
+ * (the last listed one when seasons overlap; only the listed room types when roomTypes
+ * is given) times the day-of-week multiplier. Board is charged at its flat rate. The
+ * largest length-of-stay discount the stay qualifies for comes off the whole bill.
+ * Every section is optional; empty rules price stays at the enum rates.
+ */
+public class PricingRules {
+
+    private Map<RoomType, Long> baseRatesCents = new EnumMap<>(RoomType.class);
+    private List<Season> seasons = new ArrayList<>();
+    private Map<DayOfWeek, Double> dayOfWeek = new EnumMap<>(DayOfWeek.class);
+    private List<StayDiscount> lengthOfStay = new ArrayList<>();
+
+    public static class Season {
+        private String name;
+        private LocalDate from;
+        private LocalDate to;
+        private double multiplier = 1.0;
+        private List<RoomType> roomTypes;
+
+        boolean covers(RoomType roomType, LocalDate night) {
+            return !night.isBefore(from) && !night.isAfter(to)
+                    && (roomTypes == null || roomTypes.isEmpty() || roomTypes.contains(roomType));
+        }
+    }
+
+    public static class StayDiscount {
+        private int minNights;
+        private double discountPercent;
+    }
+
+    /**
+     * Nightly room rate in cents before multipliers
+     */
+    long baseRateCents(RoomType roomType) {
+        Long rate = baseRatesCents == null ? null : baseRatesCents.get(roomType);
+        return rate != null ? rate : roomType.rateCents;
+    }
+
+    /**
+     * Room rate in cents for one night, with season and day-of-week multipliers applied
+     */
+    long nightlyRateCents(RoomType roomType, LocalDate night) {
+        double multiplier = 1.0;
+        if (seasons != null) {
+            for (int i = seasons.size() - 1; i >= 0; i--) {
+                if (seasons.get(i).covers(roomType, night)) {
+                    multiplier = seasons.get(i).multiplier;
+                    break;
+                }
+            }
+        }
+        if (dayOfWeek != null) {
+            multiplier *= dayOfWeek.getOrDefault(night.getDayOfWeek(), 1.0);
+        }
+        return Math.round(baseRateCents(roomType) * multiplier);
+    }
+
+    /**
+     * Length-of-stay tiers as parallel arrays, sorted by minimum nights; each tier's basis points
+     * are the largest discount of it and every shorter tier, so the last tier a stay reaches is its best
+     */
+    int[][] discountTiers() {
+        List<StayDiscount> tiers = new ArrayList<>(lengthOfStay == null ? List.of() : lengthOfStay);
+        tiers.sort((a, b) -> Integer.compare(a.minNights, b.minNights));
+        int[] minNights = new int[tiers.size()];
+        int[] basisPoints = new int[tiers.size()];
+        for (int i = 0; i < tiers.size(); i++) {
+            minNights[i] = tiers.get(i).minNights;
+            basisPoints[i] = (int) Math.round(tiers.get(i).discountPercent * 100);
+            // A longer stay still qualifies for every shorter tier, so keep the best one so far
+            if (i > 0) {
+                basisPoints[i] = Math.max(basisPoints[i], basisPoints[i - 1]);
+            }
+        }
+        return new int[][]{minNights, basisPoints};
+    }
+
+    /**
+     * @throws IllegalArgumentException describing the first rule that makes no sense
+     */
+    void validate() {
+        if (baseRatesCents != null) {
+            for (Map.Entry<RoomType, Long> rate : baseRatesCents.entrySet()) {
+                if (rate.getKey() == null || rate.getValue() == null || rate.getValue() < 0) {
+                    throw new IllegalArgumentException("baseRatesCents needs a known room type and a rate of at least 0");
+                }
+            }
+        }
+        if (seasons != null) {
+            for (Season season : seasons) {
+                if (season == null || season.from == null || season.to == null || season.to.isBefore(season.from)) {
+                    throw new IllegalArgumentException("Every season needs from and to dates, with to not before from");
+                }
+                if (!(season.multiplier > 0)) {
+                    throw new IllegalArgumentException("Season multipliers must be greater than 0");
+                }
+                if (season.roomTypes != null && season.roomTypes.contains(null)) {
+                    throw new IllegalArgumentException("Unknown room type in season " + season.name);
+                }
+            }
+        }
+        if (dayOfWeek != null) {
+            for (Map.Entry<DayOfWeek, Double> day : dayOfWeek.entrySet()) {
+                if (day.getKey() == null || day.getValue() == null || !(day.getValue() > 0)) {
+                    throw new IllegalArgumentException("dayOfWeek needs day names (MONDAY..SUNDAY) with multipliers greater than 0");
+                }
+            }
+        }
+        if (lengthOfStay != null) {
+            for (StayDiscount tier : lengthOfStay) {
+                if (tier == null || tier.minNights < 1 || tier.discountPercent < 0 || tier.discountPercent > 100) {
+                    throw new IllegalArgumentException("lengthOfStay tiers need minNights of at least 1 and a discountPercent from 0 to 100");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation.BoardType;
+import com.oceanview.resort.model.Reservation.RoomType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Price and availability of one candidate stay, or the reasons it cannot be priced
+ */
+public class Quote {
+
+    private final RoomType roomType;
+    private final BoardType boardType;
+    private final LocalDate checkInDate;
+    private final LocalDate checkOutDate;
+    private final Long nights;
+    private final Long totalCents;
+    private final Double total;
+    private final Boolean available;
+    private final List<ValidationError> errors;
+
+    private Quote(RoomType roomType, BoardType boardType, LocalDate checkInDate, LocalDate checkOutDate,
+            Long totalCents, Boolean available, List<ValidationError> errors) {
+        this.roomType = roomType;
+        this.boardType = boardType;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.nights = errors == null ? checkOutDate.toEpochDay() - checkInDate.toEpochDay() : null;
+        this.totalCents = totalCents;
+        this.total = totalCents == null ? null : PricingEngine.toAmount(totalCents);
+        this.available = available;
+        this.errors = errors;
+    }
+
+    static Quote priced(RoomType roomType, BoardType boardType, LocalDate checkIn, LocalDate checkOut,
+            long totalCents, boolean available) {
+        return new Quote(roomType, boardType, checkIn, checkOut, totalCents, available, null);
+    }
+
+    static Quote invalid(RoomType roomType, BoardType boardType, LocalDate checkIn, LocalDate checkOut,
+            int errors) {
+        return new Quote(roomType, boardType, checkIn, checkOut, null, null, ValidationError.of(errors));
+    }
+
+    public RoomType getRoomType() {
+        return roomType;
+    }
+
+    public BoardType getBoardType() {
+        return boardType;
+    }
+
+    public LocalDate getCheckInDate() {
+        return checkInDate;
+    }
+
+    public LocalDate getCheckOutDate() {
+        return checkOutDate;
+    }
+
+    public Long getTotalCents() {
+        return totalCents;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public List<ValidationError> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,72 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation.BoardType;
+import com.oceanview.resort.model.Reservation.RoomType;
+
+import java.time.LocalDate;
+
+/**
+ * PricingRules compiled for fast pricing.
+ * For each room type a long[] holds running totals of nightly room rates over a window of
+ * epoch days, so the room cost of any stay inside the window is one subtraction whatever
+ * its length. Stays reaching outside the window are priced night by night from the rules.
+ * Instances are immutable and replaced as a whole when the rules change.
+ */
+final class RateTable {
+
+    private final PricingRules rules;
+    private final long firstDay;
+    private final long endDay; // exclusive
+    private final long[][] prefixByRoomType;
+    private final int[] tierMinNights;
+    private final int[] tierBasisPoints;
+
+    RateTable(PricingRules rules, LocalDate first, LocalDate end) {
+        this.rules = rules;
+        this.firstDay = first.toEpochDay();
+        this.endDay = end.toEpochDay();
+        int days = (int) (endDay - firstDay);
+
+        RoomType[] roomTypes = RoomType.values();
+        prefixByRoomType = new long[roomTypes.length][];
+        for (RoomType roomType : roomTypes) {
+            long[] prefix = new long[days + 1];
+            for (int i = 0; i < days; i++) {
+                prefix[i + 1] = prefix[i] + rules.nightlyRateCents(roomType, LocalDate.ofEpochDay(firstDay + i));
+            }
+            prefixByRoomType[roomType.ordinal()] = prefix;
+        }
+
+        int[][] tiers = rules.discountTiers();
+        tierMinNights = tiers[0];
+        tierBasisPoints = tiers[1];
+    }
+
+    PricingRules getRules() {
+        return rules;
+    }
+
+    long priceCents(RoomType roomType, BoardType boardType, LocalDate checkIn, LocalDate checkOut) {
+        long from = checkIn.toEpochDay();
+        long to = checkOut.toEpochDay();
+        long nights = to - from;
+
+        long roomCents;
+        if (from >= firstDay && to <= endDay) {
+            long[] prefix = prefixByRoomType[roomType.ordinal()];
+            roomCents = prefix[(int) (to - firstDay)] - prefix[(int) (from - firstDay)];
+        } else {
+            roomCents = 0;
+            for (long day = from; day < to; day++) {
+                roomCents += rules.nightlyRateCents(roomType, LocalDate.ofEpochDay(day));
+            }
+        }
+
+        long total = roomCents + nights * boardType.rateCents;
+        int discount = 0;
+        for (int i = 0; i < tierMinNights.length && tierMinNights[i] <= nights; i++) {
+            discount = tierBasisPoints[i];
+        }
+        return discount == 0 ? total : total - Math.round(total * (discount / 10000.0));
+    }
+}
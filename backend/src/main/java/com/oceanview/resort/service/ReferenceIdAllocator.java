@@ -0,0 +1,92 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.util.FileUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out numeric reservation reference IDs from an atomic counter.
+ * IDs are reserved on disk a block at a time by persisting a high-water mark,
+ * so only the first ID of each block touches the file. After a restart the
+ * counter resumes at the high-water mark; unused IDs of the last block are skipped.
+ */
+public class ReferenceIdAllocator {
+
+    private static final long FIRST_REFERENCE_ID = 1001;
+
+    private final Path highWaterMarkPath;
+    private final int blockSize;
+    private final AtomicLong nextId;
+    private volatile long reservedUpTo; // exclusive
+
+    /**
+     * @param highWaterMarkPath file holding the first ID not yet reserved
+     * @param maxExistingId     highest reference ID already stored, or null
+     * @param blockSize         number of IDs reserved per disk write
+     */
+    public ReferenceIdAllocator(Path highWaterMarkPath, String maxExistingId, int blockSize) {
+        this.highWaterMarkPath = highWaterMarkPath;
+        this.blockSize = Math.max(1, blockSize);
+
+        long seed = FIRST_REFERENCE_ID;
+        if (maxExistingId != null) {
+            seed = Math.max(seed, Long.parseLong(maxExistingId) + 1);
+        }
+        seed = Math.max(seed, readHighWaterMark());
+
+        this.nextId = new AtomicLong(seed);
+        this.reservedUpTo = seed;
+    }
+
+    /**
+     * Allocate the next reference ID
+     */
+    public String next() {
+        return String.valueOf(allocate(1));
+    }
+
+    /**
+     * Allocate {@code count} consecutive reference IDs and return the first one
+     */
+    public long allocate(int count) {
+        long first = nextId.getAndAdd(count);
+        long last = first + count - 1;
+        if (last >= reservedUpTo) {
+            reserveThrough(last);
+        }
+        return first;
+    }
+
+    private synchronized void reserveThrough(long id) {
+        if (id < reservedUpTo) {
+            return;
+        }
+        long newMark = Math.max(reservedUpTo, id + 1) + blockSize - 1;
+        writeHighWaterMark(newMark);
+        reservedUpTo = newMark;
+    }
+
+    private long readHighWaterMark() {
+        try {
+            if (!Files.exists(highWaterMarkPath)) {
+                return FIRST_REFERENCE_ID;
+            }
+            return Long.parseLong(Files.readString(highWaterMarkPath).trim());
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Ignoring unreadable reference ID high-water mark: " + e.getMessage());
+            return FIRST_REFERENCE_ID;
+        }
+    }
+
+    private void writeHighWaterMark(long mark) {
+        try {
+            FileUtil.writeAtomically(highWaterMarkPath, String.valueOf(mark));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to reserve reference IDs", e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Reservation.BoardType;
+import com.oceanview.resort.model.Reservation.RoomType;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Filters and paging for listing reservations.
+ * Every filter is optional; results are ordered by reservation id.
+ */
+public class ReservationQuery {
+    private LocalDate from; // stay overlaps [from, to)
+    private LocalDate to;
+    private RoomType roomType;
+    private BoardType boardType;
+    private String guestNamePrefix;
+    private String phone;
+    private Long afterId; // cursor: only reservations with a larger id
+    private int offset;
+    private int limit = Integer.MAX_VALUE;
+
+    /**
+     * Check a reservation against every filter except paging
+     */
+    public boolean matches(Reservation r) {
+        if (from != null && (r.getCheckInDate() == null || r.getCheckOutDate() == null
+                || !r.getCheckInDate().isBefore(to) || !r.getCheckOutDate().isAfter(from))) {
+            return false;
+        }
+        if (roomType != null && roomType != r.getRoomType()) {
+            return false;
+        }
+        if (boardType != null && boardType != r.getBoardType()) {
+            return false;
+        }
+        if (guestNamePrefix != null && (r.getGuestName() == null
+                || !r.getGuestName().toLowerCase(Locale.ROOT).startsWith(guestNamePrefix))) {
+            return false;
+        }
+        if (phone != null && (r.getPhone() == null || !r.getPhone().trim().equals(phone))) {
+            return false;
+        }
+        return afterId == null || r.getId() > afterId;
+    }
+
+    public boolean hasDateRange() {
+        return from != null;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    /**
+     * Restrict to stays with at least one night in [from, to)
+     */
+    public void setDateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !to.isAfter(from)) {
+            throw new IllegalArgumentException("to must be after from");
+        }
+        this.from = from;
+        this.to = to;
+    }
+
+    public RoomType getRoomType() {
+        return roomType;
+    }
+
+    public void setRoomType(RoomType roomType) {
+        this.roomType = roomType;
+    }
+
+    public BoardType getBoardType() {
+        return boardType;
+    }
+
+    public void setBoardType(BoardType boardType) {
+        this.boardType = boardType;
+    }
+
+    public String getGuestNamePrefix() {
+        return guestNamePrefix;
+    }
+
+    public void setGuestNamePrefix(String guestNamePrefix) {
+        this.guestNamePrefix = guestNamePrefix == null ? null : guestNamePrefix.toLowerCase(Locale.ROOT);
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public void setPhone(String phone) {
+        this.phone = phone == null ? null : phone.trim();
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        this.offset = offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        this.limit = limit;
+    }
+}
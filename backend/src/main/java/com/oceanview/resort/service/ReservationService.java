@@ -1,64 +1,394 @@
 package com.oceanview.resort.service;
 
 import com.oceanview.resort.model.Reservation;
-import com.oceanview.resort.repository.FileBasedReservationRepository;
-import com.oceanview.resort.util.ValidationUtil;
+import com.oceanview.resort.repository.ReservationRepository;
+import com.oceanview.resort.util.ConfigUtil;
 
-import java.time.temporal.ChronoUnit;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Service layer for Reservation business logic
  */
 public class ReservationService {
 
-    private final FileBasedReservationRepository repository;
+    private static final Comparator<Reservation> BY_ID = Comparator.comparing(Reservation::getId);
+    private static final int LOCK_STRIPES = 64;
 
-    public ReservationService(FileBasedReservationRepository repository) {
+    private final ReservationRepository repository;
+    private final ReferenceIdAllocator referenceIds;
+    private final AvailabilityService availability;
+    private final ReservationStats stats;
+    private final ReservationValidator validator = new ReservationValidator();
+    private final PricingEngine pricing;
+    // Moves forward only once a write has reached the store, the room calendars and the totals
+    private final AtomicLong version = new AtomicLong();
+    // Changes to one reservation are serialised on its stripe; different reservations rarely share one
+    private final Object[] changeLocks = new Object[LOCK_STRIPES];
+
+    public ReservationService(ReservationRepository repository) {
+        this(repository, Paths.get("data"), new PricingEngine());
+    }
+
+    /**
+     * @param dataDir directory of the repository's store; the reference ID high-water mark is kept
+     *                beside it unless resort.refid.hwm names another file
+     */
+    public ReservationService(ReservationRepository repository, Path dataDir, PricingEngine pricing) {
+        this(repository, new ReferenceIdAllocator(
+                Paths.get(ConfigUtil.get("resort.refid.hwm", dataDir.resolve("reference-id.hwm").toString())),
+                repository.findMaxReferenceId(), ConfigUtil.getInt("resort.refid.blockSize", 100)),
+                new AvailabilityService(), pricing);
+    }
+
+    public ReservationService(ReservationRepository repository, ReferenceIdAllocator referenceIds,
+            AvailabilityService availability) {
+        this(repository, referenceIds, availability, new PricingEngine());
+    }
+
+    public ReservationService(ReservationRepository repository, ReferenceIdAllocator referenceIds,
+            AvailabilityService availability, PricingEngine pricing) {
         this.repository = repository;
+        this.referenceIds = referenceIds;
+        this.availability = availability;
+        this.pricing = pricing;
+        this.stats = new ReservationStats();
+        for (int i = 0; i < changeLocks.length; i++) {
+            changeLocks[i] = new Object();
+        }
+
+        // Rebuild room occupancy and running totals from the stored history
+        for (Reservation existing : repository.findAll()) {
+            availability.reserveExisting(existing);
+            stats.record(existing);
+        }
     }
 
     public List<Reservation> getAll() {
         return repository.findAll();
     }
 
+    /**
+     * Create a reservation, reporting refusals in the exception message
+     */
     public Reservation create(Reservation res) throws Exception {
-        // Manual validation
-        List<String> errors = new ArrayList<>();
-        ValidationUtil.validateRequired(res.getGuestName(), "Guest name", errors);
-        ValidationUtil.validateRequired(res.getPhone(), "Phone number", errors);
-        ValidationUtil.validateRequired(res.getCheckInDate(), "Check-in date", errors);
-        ValidationUtil.validateRequired(res.getCheckOutDate(), "Check-out date", errors);
+        CreateResult result = tryCreate(res);
+        if (!result.isCreated()) {
+            throw new Exception(result.getMessage());
+        }
+        return result.getReservation();
+    }
 
-        if (!errors.isEmpty()) {
-            throw new Exception(String.join(", ", errors));
+    /**
+     * Validate, take a room, price and save a new reservation.
+     * Refusals come back as error codes rather than exceptions.
+     */
+    public CreateResult tryCreate(Reservation res) {
+        int errors = validator.validate(res);
+        if (errors != 0) {
+            return CreateResult.rejected(res, errors);
         }
 
-        // Business Validation
-        if (res.getCheckOutDate().isBefore(res.getCheckInDate())
-                || res.getCheckOutDate().equals(res.getCheckInDate())) {
-            throw new Exception("Check-out must be at least one day after Check-in");
+        // Take a room for every night of the stay
+        if (!availability.tryReserve(res.getRoomType(), res.getCheckInDate(), res.getCheckOutDate())) {
+            return CreateResult.rejected(res, ValidationError.ROOMS_UNAVAILABLE.bit());
         }
 
-        // Auto-increment ID logic
-        String maxId = repository.findMaxReferenceId();
-        int nextId = (maxId == null) ? 1001 : Integer.parseInt(maxId) + 1;
-        res.setReferenceId(String.valueOf(nextId));
+        // The room goes back if anything fails before the reservation is stored,
+        // including the reference ID high-water mark write
+        Reservation saved;
+        try {
+            // Auto-increment ID logic
+            res.setId(null);
+            res.setReferenceId(referenceIds.next());
+            res.setVersion(1L);
+            res.setTotalBill(PricingEngine.toAmount(priceOf(res)));
+            saved = repository.save(res);
+        } catch (RuntimeException e) {
+            availability.release(res.getRoomType(), res.getCheckInDate(), res.getCheckOutDate());
+            throw e;
+        }
+        stats.record(saved);
+        version.incrementAndGet();
+        return CreateResult.created(saved);
+    }
 
-        // Bill Calculation logic
-        long nights = ChronoUnit.DAYS.between(res.getCheckInDate(), res.getCheckOutDate());
-        double dailyRate = res.getRoomType().rate + res.getBoardType().rate;
-        res.setTotalBill(nights * dailyRate);
+    /**
+     * Create every valid row of a bulk import in one repository write.
+     * Field checks run in parallel; rooms are then taken in row order, so earlier rows win
+     * when the batch overbooks a night. Accepted rows get one consecutive block of reference IDs.
+     * Each row is left marked created or rejected for the report.
+     *
+     * @return the number of reservations created
+     */
+    public int createAll(List<BulkRow> rows) {
+        rows.parallelStream()
+                .filter(BulkRow::isPending)
+                .forEach(row -> row.reject(validator.validate(row.getReservation())));
 
-        return repository.save(res);
+        List<BulkRow> accepted = new ArrayList<>();
+        for (BulkRow row : rows) {
+            if (!row.isPending()) {
+                continue;
+            }
+            Reservation res = row.getReservation();
+            if (availability.tryReserve(res.getRoomType(), res.getCheckInDate(), res.getCheckOutDate())) {
+                accepted.add(row);
+            } else {
+                row.reject(ValidationError.ROOMS_UNAVAILABLE.bit());
+            }
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        // Every accepted row's room goes back if allocating, pricing or saving fails
+        try {
+            long firstReferenceId = referenceIds.allocate(accepted.size());
+            List<Reservation> batch = new ArrayList<>(accepted.size());
+            for (int i = 0; i < accepted.size(); i++) {
+                Reservation res = accepted.get(i).getReservation();
+                res.setId(null);
+                res.setReferenceId(String.valueOf(firstReferenceId + i));
+                res.setVersion(1L);
+                res.setTotalBill(PricingEngine.toAmount(priceOf(res)));
+                batch.add(res);
+            }
+            repository.saveAll(batch);
+        } catch (RuntimeException e) {
+            for (BulkRow row : accepted) {
+                Reservation res = row.getReservation();
+                availability.release(res.getRoomType(), res.getCheckInDate(), res.getCheckOutDate());
+            }
+            throw e;
+        }
+        for (BulkRow row : accepted) {
+            stats.record(row.getReservation());
+            row.created(row.getReservation().getReferenceId());
+        }
+        version.incrementAndGet();
+        return accepted.size();
+    }
+
+    /**
+     * Change the guest details or stay of a reservation.
+     * With {@code partial} only the non-null fields of {@code changes} are applied, otherwise every
+     * editable field is replaced. When {@code expectedVersion} is given the change is made only if the
+     * reservation is still at that version. A new room is taken only for the nights that differ and
+     * the stay is repriced only when the room, board or dates change.
+     */
+    public ChangeResult update(String refId, Reservation changes, boolean partial, Long expectedVersion) {
+        synchronized (lockFor(refId)) {
+            Reservation current = getByRefId(refId);
+            if (current == null) {
+                return ChangeResult.notFound();
+            }
+            if (expectedVersion != null && expectedVersion != versionOf(current)) {
+                return ChangeResult.conflict(current);
+            }
+
+            Reservation next = copyOf(current);
+            applyChanges(next, changes, partial);
+            int errors = validator.validate(next);
+            if (errors != 0) {
+                return ChangeResult.rejected(next, errors);
+            }
+
+            boolean stayChanged = next.getRoomType() != current.getRoomType()
+                    || !Objects.equals(next.getCheckInDate(), current.getCheckInDate())
+                    || !Objects.equals(next.getCheckOutDate(), current.getCheckOutDate());
+            if (stayChanged && !availability.tryChange(current, next.getRoomType(),
+                    next.getCheckInDate(), next.getCheckOutDate())) {
+                return ChangeResult.rejected(next, ValidationError.ROOMS_UNAVAILABLE.bit());
+            }
+            if (stayChanged || next.getBoardType() != current.getBoardType()) {
+                next.setTotalBill(PricingEngine.toAmount(priceOf(next)));
+            }
+            next.setVersion(versionOf(current) + 1);
+
+            Reservation saved;
+            try {
+                saved = repository.save(next);
+            } catch (RuntimeException e) {
+                if (stayChanged) {
+                    availability.releaseExisting(next);
+                    availability.reserveExisting(current);
+                }
+                throw e;
+            }
+            stats.unrecord(current);
+            stats.record(saved);
+            version.incrementAndGet();
+            return ChangeResult.updated(saved);
+        }
+    }
+
+    /**
+     * Cancel a reservation, giving its room back.
+     * When {@code expectedVersion} is given the reservation is removed only if it is still at that version.
+     */
+    public ChangeResult cancel(String refId, Long expectedVersion) {
+        synchronized (lockFor(refId)) {
+            Reservation current = getByRefId(refId);
+            if (current == null) {
+                return ChangeResult.notFound();
+            }
+            if (expectedVersion != null && expectedVersion != versionOf(current)) {
+                return ChangeResult.conflict(current);
+            }
+            if (!repository.delete(current.getId())) {
+                return ChangeResult.notFound();
+            }
+            availability.releaseExisting(current);
+            stats.unrecord(current);
+            version.incrementAndGet();
+            return ChangeResult.deleted(current);
+        }
+    }
+
+    /**
+     * The version a reservation is at; records saved before versioning count as version 1
+     */
+    public static long versionOf(Reservation reservation) {
+        return reservation.getVersion() == null ? 1L : reservation.getVersion();
+    }
+
+    private Object lockFor(String refId) {
+        return changeLocks[Math.floorMod(refId.hashCode(), changeLocks.length)];
+    }
+
+    private static void applyChanges(Reservation target, Reservation changes, boolean partial) {
+        if (!partial || changes.getGuestName() != null) {
+            target.setGuestName(changes.getGuestName());
+        }
+        if (!partial || changes.getAddress() != null) {
+            target.setAddress(changes.getAddress());
+        }
+        if (!partial || changes.getPhone() != null) {
+            target.setPhone(changes.getPhone());
+        }
+        if (!partial || changes.getRoomType() != null) {
+            target.setRoomType(changes.getRoomType());
+        }
+        if (!partial || changes.getBoardType() != null) {
+            target.setBoardType(changes.getBoardType());
+        }
+        if (!partial || changes.getCheckInDate() != null) {
+            target.setCheckInDate(changes.getCheckInDate());
+        }
+        if (!partial || changes.getCheckOutDate() != null) {
+            target.setCheckOutDate(changes.getCheckOutDate());
+        }
+    }
+
+    // Repositories may hand out the instance they hold, so edits are made on a copy
+    private static Reservation copyOf(Reservation r) {
+        Reservation copy = new Reservation();
+        copy.setId(r.getId());
+        copy.setReferenceId(r.getReferenceId());
+        copy.setGuestName(r.getGuestName());
+        copy.setAddress(r.getAddress());
+        copy.setPhone(r.getPhone());
+        copy.setRoomType(r.getRoomType());
+        copy.setBoardType(r.getBoardType());
+        copy.setCheckInDate(r.getCheckInDate());
+        copy.setCheckOutDate(r.getCheckOutDate());
+        copy.setTotalBill(r.getTotalBill());
+        copy.setVersion(r.getVersion());
+        return copy;
+    }
+
+    /**
+     * Price a candidate stay and check that a room is free every night of it, without booking it
+     */
+    public Quote quote(Reservation stay) {
+        int errors = validator.validateStay(stay.getRoomType(), stay.getBoardType(),
+                stay.getCheckInDate(), stay.getCheckOutDate());
+        if (errors != 0) {
+            return Quote.invalid(stay.getRoomType(), stay.getBoardType(),
+                    stay.getCheckInDate(), stay.getCheckOutDate(), errors);
+        }
+        return Quote.priced(stay.getRoomType(), stay.getBoardType(), stay.getCheckInDate(),
+                stay.getCheckOutDate(), priceOf(stay),
+                availability.isAvailable(stay.getRoomType(), stay.getCheckInDate(), stay.getCheckOutDate()));
+    }
+
+    /**
+     * Quote many stays in parallel; results are in the order of the request
+     */
+    public List<Quote> quoteAll(List<Reservation> stays) {
+        Quote[] quotes = new Quote[stays.size()];
+        IntStream.range(0, quotes.length).parallel().forEach(i -> quotes[i] = quote(stays.get(i)));
+        return Arrays.asList(quotes);
+    }
+
+    private long priceOf(Reservation res) {
+        return pricing.priceCents(res.getRoomType(), res.getBoardType(), res.getCheckInDate(), res.getCheckOutDate());
+    }
+
+    /**
+     * Data version for cached responses; changes after a save or removal has been applied
+     * to the store and to the occupancy and revenue totals, so a response built from
+     * any of them is never filed under a version that predates the data it shows
+     */
+    public long getVersion() {
+        return version.get();
     }
 
     public Reservation getByRefId(String refId) {
         return repository.findByReferenceId(refId).orElse(null);
     }
 
+    /**
+     * Reservations matching a query, in id order.
+     * Phone and date filters are served from the repository indexes; the remaining
+     * filters and paging are applied lazily so callers can stream the result.
+     */
+    public Stream<Reservation> search(ReservationQuery query) {
+        Stream<Reservation> candidates;
+        if (query.getPhone() != null) {
+            candidates = repository.findByPhone(query.getPhone()).stream().sorted(BY_ID);
+        } else if (query.hasDateRange()) {
+            candidates = repository.findByStayOverlapping(query.getFrom(), query.getTo()).stream().sorted(BY_ID);
+        } else {
+            candidates = repository.streamAfter(query.getAfterId());
+        }
+        return candidates.filter(query::matches)
+                .skip(query.getOffset())
+                .limit(query.getLimit());
+    }
+
+    public boolean isAvailable(Reservation.RoomType roomType, LocalDate checkIn, LocalDate checkOut) {
+        return availability.isAvailable(roomType, checkIn, checkOut);
+    }
+
+    /**
+     * Share of rooms taken tonight, from 0.0 to 1.0
+     */
+    public double getOccupancyRate() {
+        return availability.occupancyRate(LocalDate.now());
+    }
+
     public Double calculateTotalRevenue() {
-        return getAll().stream().mapToDouble(Reservation::getTotalBill).sum();
+        return stats.getTotalRevenue();
+    }
+
+    /**
+     * Booking and revenue totals plus tonight's occupancy, without reading stored reservations
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = stats.toMap();
+        result.put("occupancyRate", Math.round(getOccupancyRate() * 100) + "%");
+        return result;
     }
 }
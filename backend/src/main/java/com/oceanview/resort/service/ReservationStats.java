@@ -0,0 +1,103 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Reservation.BoardType;
+import com.oceanview.resort.model.Reservation.RoomType;
+
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running booking and revenue totals, updated as reservations are saved.
+ * Striped adders keep concurrent updates cheap; reading the totals never looks at stored reservations.
+ */
+public class ReservationStats {
+
+    private final LongAdder bookings = new LongAdder();
+    private final DoubleAdder revenue = new DoubleAdder();
+    private final Map<RoomType, LongAdder> bookingsByRoomType = new EnumMap<>(RoomType.class);
+    private final Map<RoomType, DoubleAdder> revenueByRoomType = new EnumMap<>(RoomType.class);
+    private final Map<BoardType, DoubleAdder> revenueByBoardType = new EnumMap<>(BoardType.class);
+    private final Map<YearMonth, DoubleAdder> revenueByMonth = new ConcurrentHashMap<>();
+
+    public ReservationStats() {
+        for (RoomType type : RoomType.values()) {
+            bookingsByRoomType.put(type, new LongAdder());
+            revenueByRoomType.put(type, new DoubleAdder());
+        }
+        for (BoardType type : BoardType.values()) {
+            revenueByBoardType.put(type, new DoubleAdder());
+        }
+    }
+
+    /**
+     * Add a saved reservation to the totals
+     */
+    public void record(Reservation reservation) {
+        apply(reservation, 1);
+    }
+
+    /**
+     * Take a reservation back out of the totals
+     */
+    public void unrecord(Reservation reservation) {
+        apply(reservation, -1);
+    }
+
+    private void apply(Reservation reservation, int sign) {
+        double bill = reservation.getTotalBill() != null ? reservation.getTotalBill() * sign : 0.0;
+        bookings.add(sign);
+        revenue.add(bill);
+        if (reservation.getRoomType() != null) {
+            bookingsByRoomType.get(reservation.getRoomType()).add(sign);
+            revenueByRoomType.get(reservation.getRoomType()).add(bill);
+        }
+        if (reservation.getBoardType() != null) {
+            revenueByBoardType.get(reservation.getBoardType()).add(bill);
+        }
+        if (reservation.getCheckInDate() != null) {
+            revenueByMonth.computeIfAbsent(YearMonth.from(reservation.getCheckInDate()), m -> new DoubleAdder())
+                    .add(bill);
+        }
+    }
+
+    public long getTotalBookings() {
+        return bookings.sum();
+    }
+
+    public double getTotalRevenue() {
+        return revenue.sum();
+    }
+
+    /**
+     * Current totals as a JSON-friendly map
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalBookings", getTotalBookings());
+        stats.put("totalRevenue", getTotalRevenue());
+
+        Map<String, Long> bookingsPerRoom = new LinkedHashMap<>();
+        bookingsByRoomType.forEach((type, adder) -> bookingsPerRoom.put(type.name(), adder.sum()));
+        stats.put("bookingsByRoomType", bookingsPerRoom);
+
+        Map<String, Double> revenuePerRoom = new LinkedHashMap<>();
+        revenueByRoomType.forEach((type, adder) -> revenuePerRoom.put(type.name(), adder.sum()));
+        stats.put("revenueByRoomType", revenuePerRoom);
+
+        Map<String, Double> revenuePerBoard = new LinkedHashMap<>();
+        revenueByBoardType.forEach((type, adder) -> revenuePerBoard.put(type.name(), adder.sum()));
+        stats.put("revenueByBoardType", revenuePerBoard);
+
+        Map<String, Double> revenuePerMonth = new TreeMap<>();
+        revenueByMonth.forEach((month, adder) -> revenuePerMonth.put(month.toString(), adder.sum()));
+        stats.put("revenueByMonth", revenuePerMonth);
+        return stats;
+    }
+}
@@ -0,0 +1,71 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Reservation.BoardType;
+import com.oceanview.resort.model.Reservation.RoomType;
+import com.oceanview.resort.util.ConfigUtil;
+import com.oceanview.resort.util.ValidationUtil;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Field and date checks for reservations and quoted stays.
+ * Results are {@link ValidationError} bit masks, 0 when valid, so checks are cheap enough
+ * to run on every request and in parallel over large batches.
+ */
+public class ReservationValidator {
+
+    private final long maxNights;
+
+    public ReservationValidator() {
+        this(ConfigUtil.getInt("resort.stay.maxNights", 365));
+    }
+
+    public ReservationValidator(long maxNights) {
+        this.maxNights = maxNights;
+    }
+
+    /**
+     * Check a new reservation: guest details and the stay
+     */
+    public int validate(Reservation reservation) {
+        int errors = 0;
+        if (ValidationUtil.isBlank(reservation.getGuestName())) {
+            errors |= ValidationError.GUEST_NAME_REQUIRED.bit();
+        }
+        if (ValidationUtil.isBlank(reservation.getPhone())) {
+            errors |= ValidationError.PHONE_REQUIRED.bit();
+        }
+        return errors | validateStay(reservation.getRoomType(), reservation.getBoardType(),
+                reservation.getCheckInDate(), reservation.getCheckOutDate());
+    }
+
+    /**
+     * Check only what is needed to price a stay
+     */
+    public int validateStay(RoomType roomType, BoardType boardType, LocalDate checkIn, LocalDate checkOut) {
+        int errors = 0;
+        if (checkIn == null) {
+            errors |= ValidationError.CHECK_IN_REQUIRED.bit();
+        }
+        if (checkOut == null) {
+            errors |= ValidationError.CHECK_OUT_REQUIRED.bit();
+        }
+        if (roomType == null) {
+            errors |= ValidationError.ROOM_TYPE_REQUIRED.bit();
+        }
+        if (boardType == null) {
+            errors |= ValidationError.BOARD_TYPE_REQUIRED.bit();
+        }
+        if (checkIn != null && checkOut != null) {
+            long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
+            if (nights <= 0) {
+                errors |= ValidationError.CHECK_OUT_NOT_AFTER_CHECK_IN.bit();
+            } else if (nights > maxNights) {
+                errors |= ValidationError.STAY_TOO_LONG.bit();
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,67 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation.RoomType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reasons a reservation or quoted stay is refused.
+ * Checks report them as a bit mask (see {@link #bit()}) so validating allocates nothing;
+ * the codes and messages are only built when a request is actually rejected.
+ */
+public enum ValidationError {
+    GUEST_NAME_REQUIRED("Guest name is required"),
+    PHONE_REQUIRED("Phone number is required"),
+    CHECK_IN_REQUIRED("Check-in date is required"),
+    CHECK_OUT_REQUIRED("Check-out date is required"),
+    ROOM_TYPE_REQUIRED("Room type is required"),
+    BOARD_TYPE_REQUIRED("Board type is required"),
+    CHECK_OUT_NOT_AFTER_CHECK_IN("Check-out must be at least one day after Check-in"),
+    STAY_TOO_LONG("Stay is longer than the maximum number of nights"),
+    ROOMS_UNAVAILABLE("No %s rooms available for the selected dates");
+
+    private static final ValidationError[] VALUES = values();
+
+    private final String message;
+
+    ValidationError(String message) {
+        this.message = message;
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public boolean isIn(int mask) {
+        return (mask & bit()) != 0;
+    }
+
+    public String getMessage(RoomType roomType) {
+        return String.format(message, roomType);
+    }
+
+    /**
+     * The errors set in a mask, in declaration order
+     */
+    public static List<ValidationError> of(int mask) {
+        List<ValidationError> errors = new ArrayList<>(Integer.bitCount(mask));
+        for (ValidationError error : VALUES) {
+            if (error.isIn(mask)) {
+                errors.add(error);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Messages for the errors set in a mask, in declaration order
+     */
+    public static List<String> messages(int mask, RoomType roomType) {
+        List<String> messages = new ArrayList<>(Integer.bitCount(mask));
+        for (ValidationError error : of(mask)) {
+            messages.add(error.getMessage(roomType));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,49 @@
+package com.oceanview.resort.util;
+
+/**
+ * Utility class for reading runtime configuration.
+ * A key such as "resort.wal.fsync" is looked up as a system property first
+ * (-Dresort.wal.fsync=...) and then as an environment variable (RESORT_WAL_FSYNC).
+ */
+public class ConfigUtil {
+
+    /**
+     * Get a string setting, or the default when it is not set
+     */
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (ValidationUtil.isBlank(value)) {
+            value = System.getenv(key.toUpperCase().replace('.', '_'));
+        }
+        return ValidationUtil.isBlank(value) ? defaultValue : value.trim();
+    }
+
+    /**
+     * Get an int setting, or the default when it is not set or not a number
+     */
+    public static int getInt(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get a long setting, or the default when it is not set or not a number
+     */
+    public static long getLong(String key, long defaultValue) {
+        try {
+            return Long.parseLong(get(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get a boolean setting, or the default when it is not set
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(get(key, String.valueOf(defaultValue)));
+    }
+}
@@ -2,29 +2,31 @@ package com.oceanview.resort.util;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonSerializer;
+import com.google.gson.stream.JsonWriter;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.User;
+import java.io.StringWriter;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 /**
- * Utility class for JSON serialization and deserialization using Gson
+ * Utility class for JSON serialization and deserialization using Gson.
+ * One shared, compact Gson instance serves storage and every handler;
+ * set resort.json.pretty=true to indent output while debugging.
  */
 public class JsonUtil {
 
     private static final Gson gson;
 
     static {
-        // Configure Gson with LocalDate adapter
-        gson = new GsonBuilder()
-                .registerTypeAdapter(LocalDate.class,
-                        (JsonSerializer<LocalDate>) (src, typeOfSrc, context) -> context
-                                .serialize(src.format(DateTimeFormatter.ISO_LOCAL_DATE)))
-                .registerTypeAdapter(LocalDate.class,
-                        (JsonDeserializer<LocalDate>) (json, typeOfT, context) -> LocalDate.parse(json.getAsString(),
-                                DateTimeFormatter.ISO_LOCAL_DATE))
-                .setPrettyPrinting()
-                .create();
+        // Streaming adapters for the hot types avoid reflection and JsonElement trees
+        GsonBuilder builder = new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter())
+                .registerTypeAdapter(Reservation.class, new ReservationTypeAdapter())
+                .registerTypeAdapter(User.class, new UserTypeAdapter());
+        if (ConfigUtil.getBoolean("resort.json.pretty", false)) {
+            builder.setPrettyPrinting();
+        }
+        gson = builder.create();
     }
 
     /**
@@ -34,6 +36,15 @@ public class JsonUtil {
         return gson.toJson(obj);
     }
 
+    /**
+     * Convert object to a single-line JSON string, regardless of pretty printing
+     */
+    public static String toCompactJson(Object obj) {
+        StringWriter out = new StringWriter();
+        gson.toJson(obj, obj.getClass(), new JsonWriter(out));
+        return out.toString();
+    }
+
     /**
      * Convert JSON string to object
      */
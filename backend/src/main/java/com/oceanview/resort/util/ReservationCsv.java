@@ -0,0 +1,127 @@
+package com.oceanview.resort.util;
+
+import com.oceanview.resort.model.Reservation;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes reservations as CSV rows in the legacy reservations.txt layout,
+ * ref,name,address,phone,room,checkin,checkout, optionally followed by board and totalBill.
+ * Fields containing commas, quotes or line breaks are quoted as in RFC 4180.
+ */
+public class ReservationCsv {
+
+    public static final String HEADER = "ref,name,address,phone,room,checkin,checkout,board,totalBill";
+
+    private static final int MIN_FIELDS = 7;
+
+    /**
+     * Whether a line is a column header rather than a reservation
+     */
+    public static boolean isHeader(String line) {
+        return line.regionMatches(true, 0, "ref,", 0, 4);
+    }
+
+    /**
+     * Split one CSV line into its fields
+     */
+    public static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * Build a reservation from split fields. The ref column is not copied, since imported
+     * rows are given new reference IDs; board defaults to BB when the column is absent.
+     *
+     * @throws IllegalArgumentException naming the first field that cannot be read
+     */
+    public static Reservation fromFields(List<String> fields) {
+        if (fields.size() < MIN_FIELDS) {
+            throw new IllegalArgumentException("Expected at least " + MIN_FIELDS + " columns (" + HEADER
+                    + "), found " + fields.size());
+        }
+        Reservation reservation = new Reservation();
+        reservation.setGuestName(fields.get(1));
+        reservation.setAddress(fields.get(2));
+        reservation.setPhone(fields.get(3));
+        reservation.setRoomType(parseEnum(Reservation.RoomType.class, fields.get(4), "room"));
+        reservation.setCheckInDate(parseDate(fields.get(5), "checkin"));
+        reservation.setCheckOutDate(parseDate(fields.get(6), "checkout"));
+        String board = fields.size() > MIN_FIELDS ? fields.get(MIN_FIELDS) : "";
+        reservation.setBoardType(board.isEmpty()
+                ? Reservation.BoardType.BB
+                : parseEnum(Reservation.BoardType.class, board, "board"));
+        return reservation;
+    }
+
+    /**
+     * Append one reservation as a CSV line, including the trailing newline
+     */
+    public static void write(Reservation reservation, Appendable out) throws IOException {
+        field(out, reservation.getReferenceId()).append(',');
+        field(out, reservation.getGuestName()).append(',');
+        field(out, reservation.getAddress()).append(',');
+        field(out, reservation.getPhone()).append(',');
+        field(out, reservation.getRoomType()).append(',');
+        field(out, reservation.getCheckInDate()).append(',');
+        field(out, reservation.getCheckOutDate()).append(',');
+        field(out, reservation.getBoardType()).append(',');
+        field(out, reservation.getTotalBill()).append('\n');
+    }
+
+    private static Appendable field(Appendable out, Object value) throws IOException {
+        if (value == null) {
+            return out;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return out.append(text);
+        }
+        return out.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    private static LocalDate parseDate(String value, String name) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be a date in yyyy-MM-dd format");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String name) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + " must be one of "
+                    + java.util.Arrays.toString(type.getEnumConstants()));
+        }
+    }
+}
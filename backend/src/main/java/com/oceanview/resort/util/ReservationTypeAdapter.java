@@ -0,0 +1,136 @@
+package com.oceanview.resort.util;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.oceanview.resort.model.Reservation;
+
+import java.io.IOException;
+
+/**
+ * Hand-written streaming Gson adapter for Reservation.
+ * Produces the same JSON as reflective serialization (null fields are omitted)
+ * without reflection or an intermediate JsonElement tree.
+ */
+public class ReservationTypeAdapter extends TypeAdapter<Reservation> {
+
+    private final LocalDateTypeAdapter dateAdapter = new LocalDateTypeAdapter();
+
+    @Override
+    public void write(JsonWriter out, Reservation r) throws IOException {
+        if (r == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (r.getId() != null) {
+            out.name("id").value(r.getId());
+        }
+        writeString(out, "referenceId", r.getReferenceId());
+        writeString(out, "guestName", r.getGuestName());
+        writeString(out, "address", r.getAddress());
+        writeString(out, "phone", r.getPhone());
+        if (r.getRoomType() != null) {
+            out.name("roomType").value(r.getRoomType().name());
+        }
+        if (r.getBoardType() != null) {
+            out.name("boardType").value(r.getBoardType().name());
+        }
+        if (r.getCheckInDate() != null) {
+            out.name("checkInDate");
+            dateAdapter.write(out, r.getCheckInDate());
+        }
+        if (r.getCheckOutDate() != null) {
+            out.name("checkOutDate");
+            dateAdapter.write(out, r.getCheckOutDate());
+        }
+        if (r.getTotalBill() != null) {
+            out.name("totalBill").value(r.getTotalBill());
+        }
+        if (r.getVersion() != null) {
+            out.name("version").value(r.getVersion());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Reservation read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Reservation r = new Reservation();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            try {
+                switch (name) {
+                    case "id":
+                        r.setId(in.nextLong());
+                        break;
+                    case "referenceId":
+                        r.setReferenceId(in.nextString());
+                        break;
+                    case "guestName":
+                        r.setGuestName(in.nextString());
+                        break;
+                    case "address":
+                        r.setAddress(in.nextString());
+                        break;
+                    case "phone":
+                        r.setPhone(in.nextString());
+                        break;
+                    case "roomType":
+                        r.setRoomType(readEnum(Reservation.RoomType.class, in.nextString()));
+                        break;
+                    case "boardType":
+                        r.setBoardType(readEnum(Reservation.BoardType.class, in.nextString()));
+                        break;
+                    case "checkInDate":
+                        r.setCheckInDate(dateAdapter.read(in));
+                        break;
+                    case "checkOutDate":
+                        r.setCheckOutDate(dateAdapter.read(in));
+                        break;
+                    case "totalBill":
+                        r.setTotalBill(in.nextDouble());
+                        break;
+                    case "version":
+                        r.setVersion(in.nextLong());
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            } catch (NumberFormatException e) {
+                // Report unreadable numbers as malformed JSON, as Gson's own number adapters do
+                throw new JsonSyntaxException("Invalid number for '" + name + "'", e);
+            }
+        }
+        in.endObject();
+        return r;
+    }
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    /**
+     * Unknown constants read as null, like Gson's built-in enum adapter
+     */
+    private static <E extends Enum<E>> E readEnum(Class<E> type, String value) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equals(value)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+}
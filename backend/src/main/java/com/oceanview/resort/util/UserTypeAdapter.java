@@ -0,0 +1,68 @@
+package com.oceanview.resort.util;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.oceanview.resort.model.User;
+
+import java.io.IOException;
+
+/**
+ * Hand-written streaming Gson adapter for User
+ */
+public class UserTypeAdapter extends TypeAdapter<User> {
+
+    @Override
+    public void write(JsonWriter out, User user) throws IOException {
+        if (user == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (user.getUsername() != null) {
+            out.name("username").value(user.getUsername());
+        }
+        if (user.getPassword() != null) {
+            out.name("password").value(user.getPassword());
+        }
+        if (user.getRole() != null) {
+            out.name("role").value(user.getRole());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public User read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String username = null;
+        String password = null;
+        String role = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "username":
+                    username = in.nextString();
+                    break;
+                case "password":
+                    password = in.nextString();
+                    break;
+                case "role":
+                    role = in.nextString();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new User(username, password, role);
+    }
+}
@@ -1,5 +1,10 @@
 const API_BASE = 'http://localhost:8081/api/reservations';
 
+// Session token issued at login, sent with every API call
+function authHeaders(extra = {}) {
+    return { ...extra, 'Authorization': `Bearer ${localStorage.getItem('oceanview_token')}` };
+}
+
 // Authentication
 const loginForm = document.getElementById('loginForm');
 const loginScreen = document.getElementById('loginScreen');
@@ -28,6 +33,7 @@ loginForm.addEventListener('submit', async (e) => {
             localStorage.setItem('oceanview_logged_in', 'true');
             localStorage.setItem('oceanview_username', data.username);
             localStorage.setItem('oceanview_role', data.role);
+            localStorage.setItem('oceanview_token', data.token);
             showMainApp();
         } else {
             loginError.textContent = data.message || 'Invalid username or password';
@@ -42,6 +48,8 @@ loginForm.addEventListener('submit', async (e) => {
 });
 
 logoutBtn.addEventListener('click', () => {
+    fetch('http://localhost:8081/api/auth/logout', { method: 'POST', headers: authHeaders() }).catch(() => {});
+    localStorage.removeItem('oceanview_token');
     localStorage.removeItem('oceanview_logged_in');
     localStorage.removeItem('oceanview_username');
     localStorage.removeItem('oceanview_role');
@@ -117,8 +125,8 @@ navItems.forEach(item => {
 async function fetchData() {
     try {
         const [reservations, stats] = await Promise.all([
-            fetch(API_BASE).then(r => r.json()),
-            fetch(`${API_BASE}/stats`).then(r => r.json())
+            fetch(API_BASE, { headers: authHeaders() }).then(r => r.json()),
+            fetch(`${API_BASE}/stats`, { headers: authHeaders() }).then(r => r.json())
         ]);
 
         updateStats(stats);
@@ -136,7 +144,7 @@ function updateStats(stats) {
 
 async function fetchReservations() {
     try {
-        const reservations = await fetch(API_BASE).then(r => r.json());
+        const reservations = await fetch(API_BASE, { headers: authHeaders() }).then(r => r.json());
         updateReservationsList(reservations);
     } catch (error) {
         console.error('Error fetching reservations:', error);
@@ -222,7 +230,7 @@ reservationForm.addEventListener('submit', async (e) => {
     try {
         const response = await fetch(API_BASE, {
             method: 'POST',
-            headers: { 'Content-Type': 'application/json' },
+            headers: authHeaders({ 'Content-Type': 'application/json' }),
             body: JSON.stringify(formData)
         });
 
@@ -250,10 +258,9 @@ reservationForm.addEventListener('submit', async (e) => {
 
 // Staff Management
 async function fetchStaffList() {
-    const role = localStorage.getItem('oceanview_role');
     try {
         const response = await fetch('http://localhost:8081/api/users', {
-            headers: { 'X-Role': role }
+            headers: authHeaders()
         });
         if (response.ok) {
             const users = await response.json();
@@ -283,15 +290,11 @@ document.getElementById('staffForm').addEventListener('submit', async (e) => {
     const username = document.getElementById('newStaffUsername').value;
     const password = document.getElementById('newStaffPassword').value;
     const role = document.getElementById('newStaffRole').value;
-    const adminRole = localStorage.getItem('oceanview_role');
 
     try {
         const response = await fetch('http://localhost:8081/api/users', {
             method: 'POST',
-            headers: {
-                'Content-Type': 'application/json',
-                'X-Role': adminRole
-            },
+            headers: authHeaders({ 'Content-Type': 'application/json' }),
             body: JSON.stringify({ username, password, role })
         });
         if (response.ok) {
@@ -307,11 +310,10 @@ document.getElementById('staffForm').addEventListener('submit', async (e) => {
 
 async function deleteUser(username) {
     if (!confirm(`Are you sure you want to delete ${username}?`)) return;
-    const role = localStorage.getItem('oceanview_role');
     try {
         const response = await fetch(`http://localhost:8081/api/users?username=${username}`, {
             method: 'DELETE',
-            headers: { 'X-Role': role }
+            headers: authHeaders()
         });
         if (response.ok) fetchStaffList();
     } catch (e) { alert('Delete failed'); }
@@ -330,7 +332,7 @@ generateInvoiceBtn.addEventListener('click', async () => {
         return;
     }
     try {
-        const response = await fetch(`${API_BASE}/${refId}`);
+        const response = await fetch(`${API_BASE}/${refId}`, { headers: authHeaders() });
         if (response.ok) {
             const bill = await response.json();
             displayInvoice(bill);
@@ -369,10 +371,9 @@ function displayInvoice(bill) {
 
 // Financial Reports
 async function fetchReportData() {
-    const role = localStorage.getItem('oceanview_role');
     try {
         const response = await fetch(`${API_BASE}/stats`, {
-            headers: { 'X-Role': role }
+            headers: authHeaders()
         });
         if (response.ok) {
             const stats = await response.json();
@@ -384,6 +385,6 @@ async function fetchReportData() {
 }
 
 // Initialize login state
-if (localStorage.getItem('oceanview_logged_in') === 'true') {
+if (localStorage.getItem('oceanview_logged_in') === 'true' && localStorage.getItem('oceanview_token')) {
     showMainApp();
 }